@@ -1,39 +1,199 @@
 package edu.ccrm.cli;
 
 import edu.ccrm.config.AppConfig;
+import edu.ccrm.config.ConfigWatcher;
 import edu.ccrm.domain.*;
+import edu.ccrm.event.ChangeEventBus;
+import edu.ccrm.event.FileEventSink;
 import edu.ccrm.service.StudentService;
 import edu.ccrm.service.CourseService;
 import edu.ccrm.service.EnrollmentService;
+import edu.ccrm.service.ChangeSet;
+import edu.ccrm.service.GradeStatistics;
+import edu.ccrm.service.Page;
+import edu.ccrm.service.RetirementSummary;
+import edu.ccrm.service.Snapshot;
+import edu.ccrm.service.ValidationRules;
 import edu.ccrm.io.ImportExportService;
+import edu.ccrm.io.BackupScheduler;
 import edu.ccrm.io.BackupService;
+import edu.ccrm.io.DeltaSummary;
+import edu.ccrm.io.DropFolderIngestor;
+import edu.ccrm.io.Job;
+import edu.ccrm.io.JobManager;
+import edu.ccrm.io.RestoreReport;
+import edu.ccrm.io.StudentRecordStore;
+import edu.ccrm.report.CoEnrollmentMatrix;
+import edu.ccrm.report.LiveRankings;
+import edu.ccrm.report.RankedStudent;
+import edu.ccrm.report.RankingGroup;
+import edu.ccrm.report.ReportEngine;
+import edu.ccrm.util.Validator;
 
+import java.io.BufferedWriter;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 import java.util.Scanner;
-import java.util.stream.Collectors;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiConsumer;
 
 public class CCRMCLI {
+    private static final int PAGE_SIZE = 20;
+    
     private final Scanner scanner;
-    private final StudentService studentService;
-    private final CourseService courseService;
-    private final EnrollmentService enrollmentService;
-    private final ImportExportService importExportService;
-    private final BackupService backupService;
+    private final ChangeEventBus changeEventBus;
+    private final ReportEngine reportEngine;
+    private final JobManager jobManager;
+    private final BackupScheduler backupScheduler;
+    private final BiConsumer<AppConfig, AppConfig> configListener = this::applyConfig;
+    private ConfigWatcher configWatcher;
+    private volatile DropFolderIngestor dropFolder;
+    // Replaced together by wireServices() when a restore goes live.
+    private StudentService studentService;
+    private CourseService courseService;
+    private EnrollmentService enrollmentService;
+    private volatile ImportExportService importExportService;
+    private volatile BackupService backupService;
+    private LiveRankings liveRankings;
+    private FileEventSink changeLogSink;
+    private volatile long lastDeltaWatermark = ChangeSet.ALL;
+    
+    // Restored services waiting to be swapped in between two menu commands.
+    private record RestoredServices(CourseService courses, StudentService students, RestoreReport report) {}
+    private final AtomicReference<RestoredServices> pendingRestore = new AtomicReference<>();
     
     public CCRMCLI() {
         this.scanner = new Scanner(System.in);
-        this.courseService = new CourseService();
-        this.studentService = new StudentService(courseService);
-        this.enrollmentService = new EnrollmentService(studentService, courseService);
-        this.importExportService = new ImportExportService(studentService, courseService);
-        this.backupService = new BackupService(importExportService);
         initializeDataDirectory();
+        // Services publish from inside shard commands, so a slow or failed change log must
+        // lose events rather than stall them.
+        this.changeEventBus = new ChangeEventBus(
+            AppConfig.getInstance().getChangeBufferCapacity(), ChangeEventBus.Backpressure.DROP_OLDEST);
+        startChangeLog();
+        this.reportEngine = new ReportEngine(AppConfig.getInstance().getReportParallelism());
+        this.jobManager = new JobManager(AppConfig.getInstance().getJobThreads(),
+            AppConfig.getInstance().getJobBytesPerSecond());
+        CourseService courses = new CourseService();
+        wireServices(courses, createStudentService(courses));
+        this.backupScheduler = createBackupScheduler();
+        startConfigWatcher();
         loadSampleData();
+        if (AppConfig.getInstance().isDropFolderIngestEnabled()) setDropFolderIngest(true);
+    }
+    
+    private void startConfigWatcher() {
+        AppConfig.addReloadListener(configListener);
+        try {
+            configWatcher = AppConfig.watch();
+        } catch (IOException e) {
+            System.err.println("Error watching " + AppConfig.getConfigFile() + ": " + e.getMessage());
+        }
+    }
+    
+    // Runs on the watcher thread. The backup schedule only follows the file when the
+    // configured interval itself changed, so a schedule set from the menu survives.
+    private void applyConfig(AppConfig previous, AppConfig current) {
+        jobManager.setDefaultBytesPerSecond(current.getJobBytesPerSecond());
+        int minutes = current.getBackupIntervalMinutes();
+        if (minutes != previous.getBackupIntervalMinutes()) {
+            if (minutes > 0) backupScheduler.start(Duration.ofMinutes(minutes));
+            else backupScheduler.stop();
+        }
+        if (current.isDropFolderIngestEnabled() != previous.isDropFolderIngestEnabled()) {
+            setDropFolderIngest(current.isDropFolderIngestEnabled());
+        }
+        System.out.println("\n⚙️  Configuration reloaded from " + AppConfig.getConfigFile());
+    }
+    
+    private BackupScheduler createBackupScheduler() {
+        AppConfig config = AppConfig.getInstance();
+        BackupScheduler scheduler = new BackupScheduler(() -> backupService, config.getBackupDirectory(),
+            new BackupScheduler.Retention(config.getBackupKeepHourly(), config.getBackupKeepDaily()),
+            config.getBackupUpkeepPauseMillis());
+        if (config.getBackupIntervalMinutes() > 0) {
+            scheduler.start(Duration.ofMinutes(config.getBackupIntervalMinutes()));
+        }
+        return scheduler;
+    }
+    
+    private void wireServices(CourseService courses, StudentService students) {
+        courses.addChangeListener(changeEventBus);
+        students.addChangeListener(changeEventBus);
+        this.courseService = courses;
+        this.studentService = students;
+        this.enrollmentService = new EnrollmentService(students, courses);
+        this.importExportService = new ImportExportService(students, courses);
+        this.backupService = new BackupService(importExportService);
+        this.liveRankings = new LiveRankings(students, courses, reportEngine,
+            AppConfig.getInstance().getRankingSize());
+    }
+    
+    private void applyPendingRestore() {
+        RestoredServices restored = pendingRestore.getAndSet(null);
+        if (restored == null) return;
+        StudentService previous = studentService;
+        courseService.removeChangeListener(changeEventBus);
+        previous.removeChangeListener(changeEventBus);
+        wireServices(restored.courses(), restored.students());
+        previous.close();
+        lastDeltaWatermark = ChangeSet.ALL;
+        System.out.println("♻️  Restore is now live: " + restored.report());
+    }
+    
+    private void startChangeLog() {
+        if (!AppConfig.getInstance().isChangeLogEnabled()) return;
+        try {
+            changeLogSink = new FileEventSink(changeEventBus, AppConfig.getInstance().getChangeLogFile());
+        } catch (IOException e) {
+            System.err.println("Error opening change log: " + e.getMessage());
+        }
+    }
+    
+    private void shutdown() {
+        int activeJobs = jobManager.getActiveCount();
+        if (activeJobs > 0) System.out.println("⚠️  Cancelling " + activeJobs + " background job(s)");
+        if (configWatcher != null) configWatcher.close();
+        AppConfig.removeReloadListener(configListener);
+        setDropFolderIngest(false);
+        backupScheduler.close();
+        jobManager.close();
+        reportEngine.close();
+        studentService.close();
+        if (changeLogSink != null) {
+            long dropped = changeLogSink.getDroppedCount();
+            if (dropped > 0) System.err.println("Change log dropped " + dropped + " event(s) it could not keep up with");
+            try {
+                changeLogSink.close();
+            } catch (IOException e) {
+                System.err.println("Error closing change log: " + e.getMessage());
+            }
+        }
+    }
+    
+    private StudentService createStudentService(CourseService courseService) {
+        AppConfig config = AppConfig.getInstance();
+        if (config.isRecordStoreEnabled()) {
+            try {
+                StudentRecordStore store = new StudentRecordStore(config.getStudentStoreFile());
+                return new StudentService(courseService, store, config.getStudentCacheSize());
+            } catch (IOException e) {
+                System.err.println("Error opening student record store, using in-memory data: " + e.getMessage());
+            }
+        }
+        return new StudentService(courseService, Math.max(1, config.getStudentShards()));
     }
     
     private void initializeDataDirectory() {
@@ -80,8 +240,10 @@ public class CCRMCLI {
         System.out.println("🚀 Starting Campus Course & Records Manager...");
         
         mainLoop: while (true) {
+            applyPendingRestore();
             printMainMenu();
             String choice = scanner.nextLine().trim();
+            applyPendingRestore();
             
             switch (choice) {
                 case "1" -> manageStudents();
@@ -92,10 +254,12 @@ public class CCRMCLI {
                 case "6" -> backupOperations();
                 case "7" -> generateReports();
                 case "8" -> { printJavaPlatformInfo(); break mainLoop; }
-                case "0" -> { System.out.println("Exiting CCRM. Goodbye!"); return; }
+                case "9" -> manageJobs();
+                case "0" -> { System.out.println("Exiting CCRM. Goodbye!"); break mainLoop; }
                 default -> System.out.println("❌ Invalid choice. Please try again.");
             }
         }
+        shutdown();
     }
     
     private void printMainMenu() {
@@ -110,6 +274,7 @@ public class CCRMCLI {
         System.out.println("6. 🗂️  Backup Operations");
         System.out.println("7. 📈 Generate Reports");
         System.out.println("8. ☕ Java Platform Info & Exit");
+        System.out.println("9. ⏳ Background Jobs (" + jobManager.getActiveCount() + " active)");
         System.out.println("0. ❌ Exit");
         System.out.print("Enter your choice: ");
     }
@@ -162,8 +327,8 @@ public class CCRMCLI {
     }
     
     private void listStudents() {
-        List<Student> students = studentService.getStudentsSortedByName();
-        if (students.isEmpty()) {
+        Page<Student> page = studentService.getStudentsPage(null, PAGE_SIZE);
+        if (page.items().isEmpty()) {
             System.out.println("📭 No students found.");
             return;
         }
@@ -173,12 +338,19 @@ public class CCRMCLI {
             "ID", "Reg No", "Name", "Email", "GPA");
         System.out.println("-".repeat(80));
         
-        students.forEach(student -> {
-            System.out.printf("%-8s %-12s %-20s %-25s %.2f%n",
-                student.getId(), student.getRegNo(), 
-                student.getFullName(), student.getEmail(),
-                student.calculateGPA());
-        });
+        while (true) {
+            page.items().forEach(student -> {
+                System.out.printf("%-8s %-12s %-20s %-25s %.2f%n",
+                    student.getId(), student.getRegNo(), 
+                    student.getFullName(), student.getEmail(),
+                    student.calculateGPA());
+            });
+            if (!page.hasMore()) break;
+            
+            System.out.print("-- more (Enter to continue, q to stop) -- ");
+            if (scanner.nextLine().trim().equalsIgnoreCase("q")) break;
+            page = studentService.getStudentsPage(page.nextCursor(), PAGE_SIZE);
+        }
     }
     
     private void findStudent() {
@@ -213,11 +385,23 @@ public class CCRMCLI {
         Student student = studentOpt.get();
         System.out.print("Enter new name (current: " + student.getFullName() + "): ");
         String name = scanner.nextLine().trim();
-        if (!name.isEmpty()) student.setFullName(name);
+        if (!name.isEmpty() && !Validator.isPlainText(name, ValidationRules.NAME_BYTES)) {
+            System.out.println("❌ Invalid name!");
+            return;
+        }
         
         System.out.print("Enter new email (current: " + student.getEmail() + "): ");
         String email = scanner.nextLine().trim();
-        if (!email.isEmpty()) student.setEmail(email);
+        if (!email.isEmpty() && !(Validator.isValidEmail(email) && email.length() <= ValidationRules.EMAIL_BYTES)) {
+            System.out.println("❌ Invalid email!");
+            return;
+        }
+        try {
+            studentService.updateStudent(id, name.isEmpty() ? null : name, email.isEmpty() ? null : email, null);
+        } catch (IllegalArgumentException e) {
+            System.out.println("❌ " + e.getMessage());
+            return;
+        }
         
         System.out.println("✅ Student updated successfully!");
     }
@@ -245,7 +429,9 @@ public class CCRMCLI {
             System.out.println("3. 🔍 Find Course by Code");
             System.out.println("4. 🏫 Courses by Department");
             System.out.println("5. 📅 Courses by Semester");
-            System.out.println("6. ↩️  Back to Main Menu");
+            System.out.println("6. 🔗 Manage Prerequisites");
+            System.out.println("7. 🗑️  Retire Courses");
+            System.out.println("8. ↩️  Back to Main Menu");
             System.out.print("Enter your choice: ");
             
             switch (scanner.nextLine().trim()) {
@@ -254,9 +440,74 @@ public class CCRMCLI {
                 case "3" -> findCourse();
                 case "4" -> coursesByDepartment();
                 case "5" -> coursesBySemester();
-                case "6" -> { break courseMenu; }
+                case "6" -> managePrerequisites();
+                case "7" -> retireCourses();
+                case "8" -> { break courseMenu; }
+                default -> System.out.println("❌ Invalid choice.");
+            }
+        }
+    }
+    
+    private void retireCourses() {
+        try {
+            System.out.print("Retire by (CODES/DEPARTMENT): ");
+            String mode = scanner.nextLine().trim().toUpperCase();
+            List<String> codes;
+            if (mode.equals("DEPARTMENT")) {
+                System.out.print("Enter Department: ");
+                codes = courseService.getCoursesByDepartment(scanner.nextLine().trim()).stream()
+                    .filter(Course::isActive)
+                    .map(Course::getCode)
+                    .toList();
+            } else if (mode.equals("CODES")) {
+                System.out.print("Enter Course Codes (comma-separated): ");
+                codes = Arrays.stream(scanner.nextLine().split(","))
+                    .map(String::trim)
+                    .filter(code -> !code.isEmpty())
+                    .toList();
+            } else {
+                System.out.println("❌ Invalid choice.");
+                return;
+            }
+            if (codes.isEmpty()) {
+                System.out.println("📭 No courses to retire.");
+                return;
+            }
+            
+            System.out.print("Retire " + codes + " and unenroll all their students? (y/N): ");
+            if (!scanner.nextLine().trim().equalsIgnoreCase("y")) return;
+            RetirementSummary summary = studentService.retireCourses(codes);
+            System.out.println("✅ " + summary);
+            summary.unenrolledByCourse().forEach((code, count) ->
+                System.out.printf("   %-10s %d student(s) unenrolled%n", code, count));
+        } catch (IllegalArgumentException e) {
+            System.out.println("❌ " + e.getMessage());
+        }
+    }
+    
+    private void managePrerequisites() {
+        try {
+            System.out.print("Enter Course Code: ");
+            String code = scanner.nextLine().trim();
+            System.out.println("Direct prerequisites: " + courseService.getPrerequisites(code));
+            System.out.println("Full prerequisite chain: " + courseService.getAllPrerequisites(code));
+            System.out.print("Add (A), remove (R) or keep (Enter): ");
+            String action = scanner.nextLine().trim().toUpperCase();
+            if (action.isEmpty()) return;
+            System.out.print("Enter Prerequisite Course Code: ");
+            String prerequisite = scanner.nextLine().trim();
+            
+            switch (action) {
+                case "A" -> {
+                    courseService.addPrerequisite(code, prerequisite);
+                    System.out.println("✅ " + prerequisite + " is now required for " + code);
+                }
+                case "R" -> System.out.println(courseService.removePrerequisite(code, prerequisite)
+                    ? "✅ Prerequisite removed" : "❌ " + prerequisite + " is not a prerequisite of " + code);
                 default -> System.out.println("❌ Invalid choice.");
             }
+        } catch (IllegalArgumentException e) {
+            System.out.println("❌ " + e.getMessage());
         }
     }
     
@@ -288,8 +539,7 @@ public class CCRMCLI {
     }
     
     private void listCourses() {
-        List<Course> courses = courseService.getAllCourses();
-        if (courses.isEmpty()) {
+        if (courseService.getCourseCount() == 0) {
             System.out.println("📭 No courses found.");
             return;
         }
@@ -299,7 +549,7 @@ public class CCRMCLI {
             "Code", "Title", "Credits", "Instructor", "Semester", "Department");
         System.out.println("-".repeat(100));
         
-        courses.forEach(course -> {
+        courseService.streamCourses().forEach(course -> {
             System.out.printf("%-10s %-30s %-8d %-12s %-10s %-15s%n",
                 course.getCode(), course.getTitle(), course.getCredits(),
                 course.getInstructorId() != null ? course.getInstructorId() : "N/A",
@@ -402,12 +652,10 @@ public class CCRMCLI {
             System.out.print("Enter Course Code: ");
             String courseCode = scanner.nextLine().trim();
             
-            Optional<Student> student = studentService.getStudent(studentId);
-            if (student.isPresent()) {
-                student.get().unenrollFromCourse(courseCode);
+            if (studentService.unenrollStudentFromCourse(studentId, courseCode)) {
                 System.out.println("✅ Student unenrolled successfully!");
             } else {
-                System.out.println("❌ Student not found!");
+                System.out.println("❌ Student is not enrolled in " + courseCode + "!");
             }
         } catch (Exception e) {
             System.out.println("❌ Error unenrolling student: " + e.getMessage());
@@ -440,6 +688,9 @@ public class CCRMCLI {
     System.out.print("\nShow detailed enrollment report? (y/n): ");
     if (scanner.nextLine().trim().equalsIgnoreCase("y")) {
         enrollmentService.printEnrollmentReport();
+        var stats = enrollmentService.getViewCacheStats();
+        System.out.printf("(view cache: %d hits, %d misses, %d/%d entries)%n",
+            stats.hits(), stats.misses(), stats.size(), stats.capacity());
     }
 }
     
@@ -451,14 +702,18 @@ public class CCRMCLI {
             System.out.println("1. 📝 Record Grade");
             System.out.println("2. 📈 View Student Grades");
             System.out.println("3. 🏆 Top Students by GPA");
-            System.out.println("4. ↩️  Back to Main Menu");
+            System.out.println("4. 🥇 Rankings by Course/Department/Semester");
+            System.out.println("5. 📉 Course Grade Statistics");
+            System.out.println("6. ↩️  Back to Main Menu");
             System.out.print("Enter your choice: ");
             
             switch (scanner.nextLine().trim()) {
                 case "1" -> recordGrade();
                 case "2" -> viewStudentGrades();
                 case "3" -> topStudentsByGPA();
-                case "4" -> { break gradeMenu; }
+                case "4" -> showRankings();
+                case "5" -> showCourseStatistics();
+                case "6" -> { break gradeMenu; }
                 default -> System.out.println("❌ Invalid choice.");
             }
         }
@@ -512,9 +767,8 @@ public class CCRMCLI {
     }
     
     private void topStudentsByGPA() {
-        List<Student> topStudents = studentService.getStudentsSortedByGPA().stream()
-            .limit(5)
-            .collect(Collectors.toList());
+        var students = studentService.snapshot();
+        List<RankedStudent> topStudents = reportEngine.topStudentsByGpa(students, 5);
         
         if (topStudents.isEmpty()) {
             System.out.println("📭 No students with grades found.");
@@ -526,12 +780,72 @@ public class CCRMCLI {
         System.out.printf("%-20s %-12s %-8s%n", "Name", "Reg No", "GPA");
         System.out.println("-".repeat(60));
         
-        topStudents.forEach(student -> {
-            System.out.printf("%-20s %-12s %.2f%n",
-                student.getFullName(), student.getRegNo(), student.calculateGPA());
+        topStudents.forEach(ranked -> {
+            String regNo = students.get(ranked.studentId()).map(Student::getRegNo).orElse("N/A");
+            System.out.printf("%-20s %-12s %.2f%n", ranked.fullName(), regNo, ranked.value());
         });
     }
     
+    private void showCourseStatistics() {
+        System.out.print("Enter Course Code: ");
+        String courseCode = scanner.nextLine().trim();
+        GradeStatistics stats = studentService.getCourseStatistics(courseCode);
+        if (stats.getCount() == 0) {
+            System.out.println("📭 No grades recorded for " + courseCode);
+            return;
+        }
+        
+        System.out.println("\n📉 GRADE STATISTICS - " + courseCode);
+        System.out.println("-".repeat(50));
+        System.out.printf("Graded: %d   Mean: %.2f   Std Dev: %.2f%n",
+            stats.getCount(), stats.getMean(), stats.getStdDev());
+        System.out.printf("Min: %.1f   P25: %.1f   Median: %.1f   P75: %.1f   P90: %.1f   Max: %.1f%n",
+            stats.getMin(), stats.getPercentile(25), stats.getMedian(),
+            stats.getPercentile(75), stats.getPercentile(90), stats.getMax());
+        System.out.println("-".repeat(50));
+        stats.getLetterCounts().forEach((grade, count) -> {
+            int bar = (int) (40 * count / stats.getCount());
+            System.out.printf("%-2s %6d %s%n", grade, count, "█".repeat(bar));
+        });
+    }
+    
+    private void showRankings() {
+        try {
+            System.out.print("Rank by (COURSE/DEPARTMENT/TERM): ");
+            RankingGroup.Type type = RankingGroup.Type.valueOf(scanner.nextLine().trim().toUpperCase());
+            RankingGroup group;
+            if (type == RankingGroup.Type.TERM) {
+                System.out.print("Enter Semester (SPRING/SUMMER/FALL): ");
+                Semester semester = Semester.valueOf(scanner.nextLine().trim().toUpperCase());
+                System.out.print("Enter Academic Year: ");
+                int year = Integer.parseInt(scanner.nextLine().trim());
+                group = RankingGroup.term(new AcademicTerm(year, semester));
+            } else {
+                System.out.print(type == RankingGroup.Type.COURSE ? "Enter Course Code: " : "Enter Department: ");
+                String name = scanner.nextLine().trim();
+                group = type == RankingGroup.Type.COURSE ? RankingGroup.course(name) : RankingGroup.department(name);
+            }
+            
+            List<RankedStudent> ranking = liveRankings.top(group);
+            if (ranking.isEmpty()) {
+                System.out.println("📭 No graded students found for " + group.name());
+                return;
+            }
+            
+            String valueLabel = type == RankingGroup.Type.TERM ? "GPA" : "Score";
+            System.out.println("\n🥇 TOP " + liveRankings.getK() + " - " + group.name());
+            System.out.println("-".repeat(50));
+            System.out.printf("%-4s %-8s %-20s %-8s%n", "#", "ID", "Name", valueLabel);
+            System.out.println("-".repeat(50));
+            for (int i = 0; i < ranking.size(); i++) {
+                RankedStudent ranked = ranking.get(i);
+                System.out.printf("%-4d %-8s %-20s %.2f%n", i + 1, ranked.studentId(), ranked.fullName(), ranked.value());
+            }
+        } catch (IllegalArgumentException e) {
+            System.out.println("❌ Invalid input: " + e.getMessage());
+        }
+    }
+    
     private void importExportData() {
         ioMenu: while (true) {
             System.out.println("\n" + "=".repeat(30));
@@ -541,7 +855,13 @@ public class CCRMCLI {
             System.out.println("2. 📥 Import Courses from CSV");
             System.out.println("3. 📤 Export Students to CSV");
             System.out.println("4. 📤 Export Courses to CSV");
-            System.out.println("5. ↩️  Back to Main Menu");
+            System.out.println("5. 🔁 Upsert Students from CSV (Registrar Feed)");
+            System.out.println("6. 🔄 Delta Export (Changed Since Watermark)");
+            System.out.println("7. 📝 Import Grades from CSV (End of Term)");
+            System.out.println("8. 📂 Drop-Folder Ingestion");
+            System.out.println("9. 🧾 Export Students & Courses to JSON Lines");
+            System.out.println("10. 🧾 Import Students & Courses from JSON Lines");
+            System.out.println("11. ↩️  Back to Main Menu");
             System.out.print("Enter your choice: ");
             
             switch (scanner.nextLine().trim()) {
@@ -549,7 +869,13 @@ public class CCRMCLI {
                 case "2" -> importCourses();
                 case "3" -> exportStudents();
                 case "4" -> exportCourses();
-                case "5" -> { break ioMenu; }
+                case "5" -> upsertStudents();
+                case "6" -> exportChanges();
+                case "7" -> importGrades();
+                case "8" -> manageDropFolder();
+                case "9" -> exportJson();
+                case "10" -> importJson();
+                case "11" -> { break ioMenu; }
                 default -> System.out.println("❌ Invalid choice.");
             }
         }
@@ -560,11 +886,64 @@ public class CCRMCLI {
         String path = scanner.nextLine().trim();
         Path filePath = Paths.get(path.isEmpty() ? "test-data/students.csv" : path);
         
+        startJob("Import students from " + filePath, progress -> {
+            importExportService.importStudentsFromCSV(filePath, progress);
+            return "Students imported from " + filePath;
+        });
+    }
+    
+    private void upsertStudents() {
+        System.out.print("Enter CSV file path (or press Enter for default): ");
+        String path = scanner.nextLine().trim();
+        Path filePath = Paths.get(path.isEmpty() ? "test-data/students.csv" : path);
+        
+        startJob("Upsert students from " + filePath,
+            progress -> "Students upserted: " + importExportService.upsertStudentsFromCSV(filePath, progress));
+    }
+    
+    private void importGrades() {
+        System.out.print("Enter grades CSV file path (studentId,courseId,score): ");
+        Path filePath = Paths.get(scanner.nextLine().trim());
+        LiveRankings rankings = liveRankings;
+        
+        startJob("Import grades from " + filePath, progress -> {
+            // Rebuilding the boards once afterwards beats updating them for every mark.
+            rankings.invalidateAll();
+            return "Grades imported: " + importExportService.importGradesFromCSV(filePath, progress);
+        });
+    }
+    
+    private void manageDropFolder() {
+        DropFolderIngestor ingestor = dropFolder;
+        if (ingestor == null) {
+            System.out.println("📂 Drop-folder ingestion: off");
+        } else {
+            System.out.println("📂 Watching " + ingestor.getDirectory() + ": " + ingestor.getRowCount()
+                + " rows ingested, " + ingestor.getRejectedCount() + " rejected");
+            System.out.println("📝 Last run: " + ingestor.getLastStatus());
+        }
+        System.out.println("Files named *" + DropFolderIngestor.Feed.STUDENTS.getSuffix() + ", *"
+            + DropFolderIngestor.Feed.COURSES.getSuffix() + " or *" + DropFolderIngestor.Feed.GRADES.getSuffix()
+            + " are tailed as they grow.");
+        System.out.print(ingestor == null ? "Start watching? (y/N): " : "Stop watching? (y/N): ");
+        if (scanner.nextLine().trim().equalsIgnoreCase("y")) {
+            setDropFolderIngest(ingestor == null);
+            System.out.println(dropFolder != null ? "✅ Drop-folder ingestion started" : "✅ Drop-folder ingestion stopped");
+        }
+    }
+    
+    // Called from the menu and from the config watcher thread.
+    private synchronized void setDropFolderIngest(boolean enabled) {
+        if (enabled == (dropFolder != null)) return;
+        if (!enabled) {
+            dropFolder.close();
+            dropFolder = null;
+            return;
+        }
         try {
-            importExportService.importStudentsFromCSV(filePath);
-            System.out.println("✅ Students imported successfully!");
+            dropFolder = new DropFolderIngestor(() -> importExportService, AppConfig.getInstance().getDataDirectory());
         } catch (IOException e) {
-            System.out.println("❌ Error importing students: " + e.getMessage());
+            System.err.println("Error watching drop folder: " + e.getMessage());
         }
     }
     
@@ -573,34 +952,87 @@ public class CCRMCLI {
         String path = scanner.nextLine().trim();
         Path filePath = Paths.get(path.isEmpty() ? "test-data/courses.csv" : path);
         
-        try {
-            importExportService.importCoursesFromCSV(filePath);
-            System.out.println("✅ Courses imported successfully!");
-        } catch (IOException e) {
-            System.out.println("❌ Error importing courses: " + e.getMessage());
-        }
+        startJob("Import courses from " + filePath, progress -> {
+            importExportService.importCoursesFromCSV(filePath, progress);
+            return "Courses imported from " + filePath;
+        });
     }
     
     private void exportStudents() {
         Path filePath = AppConfig.getInstance().getDataDirectory().resolve("students_export.csv");
         
-        try {
-            importExportService.exportStudentsToCSV(filePath);
-            System.out.println("✅ Students exported to: " + filePath);
-        } catch (IOException e) {
-            System.out.println("❌ Error exporting students: " + e.getMessage());
-        }
+        startJob("Export students to " + filePath, progress -> {
+            importExportService.exportStudentsToCSV(studentService.snapshot(), filePath, progress);
+            return "Students exported to: " + filePath;
+        });
     }
     
     private void exportCourses() {
         Path filePath = AppConfig.getInstance().getDataDirectory().resolve("courses_export.csv");
         
+        startJob("Export courses to " + filePath, progress -> {
+            importExportService.exportCoursesToCSV(courseService.snapshot(), filePath, progress);
+            return "Courses exported to: " + filePath;
+        });
+    }
+    
+    private void exportJson() {
+        Path dataDir = AppConfig.getInstance().getDataDirectory();
+        Path studentsFile = dataDir.resolve("students.jsonl");
+        Path coursesFile = dataDir.resolve("courses.jsonl");
+        Snapshot<Student> students = studentService.snapshot();
+        Snapshot<Course> courses = courseService.snapshot();
+        
+        startJob("Export JSON lines to " + dataDir, progress -> {
+            importExportService.exportCoursesToJson(courses, coursesFile, progress);
+            importExportService.exportStudentsToJson(students, studentsFile, progress);
+            return "Exported " + courses.size() + " courses and " + students.size() + " students to " + dataDir;
+        });
+    }
+    
+    // Courses first: student enrollments refer to them.
+    private void importJson() {
+        Path dataDir = AppConfig.getInstance().getDataDirectory();
+        System.out.print("Enter courses file (or press Enter for " + dataDir.resolve("courses.jsonl") + ", - to skip): ");
+        String courses = scanner.nextLine().trim();
+        System.out.print("Enter students file (or press Enter for " + dataDir.resolve("students.jsonl") + ", - to skip): ");
+        String students = scanner.nextLine().trim();
+        Path coursesFile = courses.equals("-") ? null : courses.isEmpty() ? dataDir.resolve("courses.jsonl") : Paths.get(courses);
+        Path studentsFile = students.equals("-") ? null : students.isEmpty() ? dataDir.resolve("students.jsonl") : Paths.get(students);
+        
+        startJob("Import JSON lines", progress -> {
+            if (coursesFile != null) importExportService.importCoursesFromJson(coursesFile, progress);
+            if (studentsFile != null) importExportService.importStudentsFromJson(studentsFile, progress);
+            return "JSON lines imported";
+        });
+    }
+    
+    private void exportChanges() {
+        System.out.println("Last watermark this session: " + lastDeltaWatermark);
+        System.out.print("Enter watermark, date-time (yyyy-MM-ddTHH:mm) or press Enter for last: ");
+        String input = scanner.nextLine().trim();
+        long watermark;
         try {
-            importExportService.exportCoursesToCSV(filePath);
-            System.out.println("✅ Courses exported to: " + filePath);
-        } catch (IOException e) {
-            System.out.println("❌ Error exporting courses: " + e.getMessage());
+            if (input.isEmpty()) {
+                watermark = lastDeltaWatermark;
+            } else if (input.contains("T")) {
+                watermark = ChangeSet.watermarkAt(LocalDateTime.parse(input).atZone(ZoneId.systemDefault()).toInstant());
+            } else {
+                watermark = Long.parseLong(input);
+            }
+        } catch (NumberFormatException | DateTimeParseException e) {
+            System.out.println("❌ Invalid watermark: " + input);
+            return;
         }
+        
+        Path dataDir = AppConfig.getInstance().getDataDirectory();
+        Path studentsFile = dataDir.resolve("students_delta.csv");
+        Path coursesFile = dataDir.resolve("courses_delta.csv");
+        startJob("Delta export since " + watermark, progress -> {
+            DeltaSummary summary = importExportService.exportChangesToCSV(watermark, studentsFile, coursesFile, progress);
+            lastDeltaWatermark = summary.watermark();
+            return "Delta exported to " + dataDir + ": " + summary;
+        });
     }
     
     private void backupOperations() {
@@ -611,27 +1043,170 @@ public class CCRMCLI {
             System.out.println("1. 💾 Create Backup");
             System.out.println("2. 📊 Show Backup Size (Recursive)");
             System.out.println("3. 📁 List Backup Files (Recursive)");
-            System.out.println("4. ↩️  Back to Main Menu");
+            System.out.println("4. ♻️  Restore Backup");
+            System.out.println("5. ⏰ Backup Schedule & Retention");
+            System.out.println("6. ↩️  Back to Main Menu");
             System.out.print("Enter your choice: ");
             
             switch (scanner.nextLine().trim()) {
                 case "1" -> createBackup();
                 case "2" -> showBackupSize();
                 case "3" -> listBackupFiles();
-                case "4" -> { break backupMenu; }
+                case "4" -> restoreBackup();
+                case "5" -> manageBackupSchedule();
+                case "6" -> { break backupMenu; }
                 default -> System.out.println("❌ Invalid choice.");
             }
         }
     }
     
     private void createBackup() {
-        try {
-            Path backupDir = backupService.createBackup();
+        startJob("Create backup", progress -> {
+            Path backupDir = backupService.createBackup(progress);
             long size = backupService.calculateBackupSize(backupDir);
-            System.out.println("✅ Backup created: " + backupDir);
-            System.out.println("📊 Backup size: " + size + " bytes");
-        } catch (IOException e) {
-            System.out.println("❌ Error creating backup: " + e.getMessage());
+            return "Backup created: " + backupDir + " (" + size + " bytes)";
+        });
+    }
+    
+    // Loads into fresh services in the background; they replace the live ones at the next
+    // menu command, so no command ever sees a half-restored state.
+    private void restoreBackup() {
+        System.out.print("Enter backup directory, timestamp (yyyyMMdd_HHmmss) or press Enter for latest: ");
+        String spec = scanner.nextLine().trim();
+        Path backupDir;
+        try {
+            backupDir = backupService.resolveBackup(spec);
+        } catch (IOException | IllegalArgumentException e) {
+            System.out.println("❌ " + e.getMessage());
+            return;
+        }
+        BackupService backups = backupService;
+        startJob("Restore from " + backupDir, progress -> {
+            CourseService courses = new CourseService();
+            StudentService students = new StudentService(courses, Math.max(1, AppConfig.getInstance().getStudentShards()));
+            try {
+                RestoreReport report = backups.restoreBackup(backupDir, courses, students, progress);
+                RestoredServices replaced = pendingRestore.getAndSet(new RestoredServices(courses, students, report));
+                if (replaced != null) replaced.students().close();
+                return "Restored " + report + "; goes live at the next menu command";
+            } catch (Exception e) {
+                students.close();
+                throw e;
+            }
+        });
+    }
+    
+    private void manageBackupSchedule() {
+        BackupScheduler.Retention retention = backupScheduler.getRetention();
+        System.out.println("⏰ Scheduled backups: " + backupScheduler.getInterval()
+            .map(interval -> "every " + interval.toMinutes() + " minutes").orElse("off"));
+        System.out.println("🗄️  Retention: " + retention.hourly() + " hourly, " + retention.daily() + " daily (older dailies are zipped)");
+        System.out.println("📝 Last run: " + backupScheduler.getLastStatus());
+        System.out.print("Enter new interval in minutes (0 to stop), 'u' to run retention now, or Enter to keep: ");
+        String input = scanner.nextLine().trim();
+        if (input.isEmpty()) return;
+        if (input.equalsIgnoreCase("u")) {
+            try {
+                System.out.println("✅ Retention applied: " + backupScheduler.runUpkeepNow().get());
+            } catch (ExecutionException e) {
+                System.out.println("❌ Retention failed: " + e.getCause().getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return;
+        }
+        try {
+            int minutes = Integer.parseInt(input);
+            if (minutes <= 0) {
+                backupScheduler.stop();
+                System.out.println("⏹️  Scheduled backups stopped");
+            } else {
+                backupScheduler.start(Duration.ofMinutes(minutes));
+                System.out.println("✅ Backing up every " + minutes + " minutes");
+            }
+        } catch (NumberFormatException e) {
+            System.out.println("❌ Invalid interval.");
+        }
+    }
+    
+    private void startJob(String description, JobManager.Task task) {
+        Job job = jobManager.submit(description, task);
+        System.out.println("⏳ Job #" + job.getId() + " started: " + description);
+        System.out.println("   Track it under Background Jobs in the main menu.");
+    }
+    
+    private void manageJobs() {
+        jobMenu: while (true) {
+            System.out.println("\n" + "=".repeat(30));
+            System.out.println("⏳ BACKGROUND JOBS");
+            System.out.println("=".repeat(30));
+            System.out.println("1. 📋 Show Job Status");
+            System.out.println("2. 🛑 Cancel Job");
+            System.out.println("3. 🐢 Set Job Throttle");
+            System.out.println("4. 🧹 Clear Finished Jobs");
+            System.out.println("5. ↩️  Back to Main Menu");
+            System.out.print("Enter your choice: ");
+            
+            switch (scanner.nextLine().trim()) {
+                case "1" -> showJobs();
+                case "2" -> cancelJob();
+                case "3" -> throttleJob();
+                case "4" -> System.out.println("✅ Cleared " + jobManager.clearFinished() + " finished job(s)");
+                case "5" -> { break jobMenu; }
+                default -> System.out.println("❌ Invalid choice.");
+            }
+        }
+    }
+    
+    private void showJobs() {
+        List<Job> jobs = jobManager.getJobs();
+        if (jobs.isEmpty()) {
+            System.out.println("📭 No background jobs.");
+            return;
+        }
+        for (Job job : jobs) {
+            System.out.printf("#%d %-10s %s%n", job.getId(), job.getState(), job.getDescription());
+            String percent = job.getFractionDone().map(f -> String.format(" (%.1f%%)", f * 100)).orElse("");
+            String eta = job.getEta().map(d -> ", ETA " + formatDuration(d)).orElse("");
+            String throttle = job.getBytesPerSecond() > 0 ? ", throttled to " + job.getBytesPerSecond() + " B/s" : "";
+            System.out.printf("    %d rows, %d bytes%s in %s%s%s%n", job.getRows(), job.getBytes(), percent,
+                formatDuration(job.getElapsed()), eta, throttle);
+            if (job.getResult() != null) System.out.println("    " + job.getResult());
+        }
+    }
+    
+    private static String formatDuration(Duration duration) {
+        return String.format("%d:%02d:%02d", duration.toHours(), duration.toMinutesPart(), duration.toSecondsPart());
+    }
+    
+    private void cancelJob() {
+        System.out.print("Enter job number: ");
+        try {
+            int id = Integer.parseInt(scanner.nextLine().trim());
+            if (jobManager.cancel(id)) {
+                System.out.println("🛑 Cancellation requested for job #" + id);
+            } else {
+                System.out.println("❌ No active job #" + id);
+            }
+        } catch (NumberFormatException e) {
+            System.out.println("❌ Invalid job number.");
+        }
+    }
+    
+    private void throttleJob() {
+        try {
+            System.out.print("Enter job number: ");
+            int id = Integer.parseInt(scanner.nextLine().trim());
+            Optional<Job> job = jobManager.getJob(id).filter(j -> !j.isDone());
+            if (job.isEmpty()) {
+                System.out.println("❌ No active job #" + id);
+                return;
+            }
+            System.out.print("Enter limit in bytes per second (0 for unlimited): ");
+            job.get().setBytesPerSecond(Long.parseLong(scanner.nextLine().trim()));
+            System.out.println("✅ Job #" + id + " throttle updated");
+        } catch (NumberFormatException e) {
+            System.out.println("❌ Invalid number.");
         }
     }
     
@@ -676,67 +1251,100 @@ public class CCRMCLI {
             System.out.println("1. 📊 GPA Distribution");
             System.out.println("2. 🏫 Courses by Department");
             System.out.println("3. 👨‍🏫 Courses by Instructor");
-            System.out.println("4. ↩️  Back to Main Menu");
+            System.out.println("4. 🔀 Co-Enrollment Analysis");
+            System.out.println("5. 💾 Save Reports to File");
+            System.out.println("6. ↩️  Back to Main Menu");
             System.out.print("Enter your choice: ");
             
             switch (scanner.nextLine().trim()) {
                 case "1" -> gpaDistribution();
                 case "2" -> coursesByDepartmentReport();
                 case "3" -> coursesByInstructor();
-                case "4" -> { break reportMenu; }
+                case "4" -> coEnrollmentReport();
+                case "5" -> saveReports();
+                case "6" -> { break reportMenu; }
                 default -> System.out.println("❌ Invalid choice.");
             }
         }
     }
     
+    // Reports are rendered into one buffer and flushed once instead of printing line by line.
+    private Writer consoleWriter() {
+        return new BufferedWriter(new OutputStreamWriter(System.out, System.out.charset()),
+            AppConfig.getInstance().getIoBufferSize());
+    }
+    
     private void gpaDistribution() {
-        var gpaGroups = studentService.getAllStudents().stream()
-            .collect(Collectors.groupingBy(
-                student -> {
-                    double gpa = student.calculateGPA();
-                    if (gpa >= 9) return "A (9.0+)";
-                    else if (gpa >= 8) return "B (8.0-8.9)";
-                    else if (gpa >= 7) return "C (7.0-7.9)";
-                    else if (gpa >= 6) return "D (6.0-6.9)";
-                    else return "F (<6.0)";
-                },
-                Collectors.counting()
-            ));
-        
-        System.out.println("\n📊 GPA DISTRIBUTION");
-        System.out.println("-".repeat(30));
-        gpaGroups.forEach((range, count) -> {
-            System.out.printf("%-12s: %d students%n", range, count);
-        });
+        try {
+            Writer out = consoleWriter();
+            reportEngine.writeGpaDistribution(studentService.snapshot(), out);
+            out.flush();
+        } catch (IOException e) {
+            System.out.println("❌ Error writing report: " + e.getMessage());
+        }
     }
     
     private void coursesByDepartmentReport() {
-        var deptGroups = courseService.getCoursesGroupedByDepartment();
-        
-        System.out.println("\n🏫 COURSES BY DEPARTMENT");
-        System.out.println("-".repeat(40));
-        deptGroups.forEach((dept, courses) -> {
-            System.out.printf("%-20s: %d courses%n", dept, courses.size());
-            courses.forEach(course -> System.out.println("  • " + course.getCode() + " - " + course.getTitle()));
-        });
+        try {
+            Writer out = consoleWriter();
+            reportEngine.writeCoursesByDepartment(courseService.snapshot(), out);
+            out.flush();
+        } catch (IOException e) {
+            System.out.println("❌ Error writing report: " + e.getMessage());
+        }
     }
     
     private void coursesByInstructor() {
         System.out.print("Enter Instructor ID: ");
         String instructorId = scanner.nextLine().trim();
         
-        List<Course> courses = courseService.getCoursesByInstructor(instructorId);
-        if (courses.isEmpty()) {
-            System.out.println("📭 No courses found for instructor: " + instructorId);
-            return;
+        try {
+            Writer out = consoleWriter();
+            reportEngine.writeCoursesByInstructor(courseService.snapshot(), instructorId, out);
+            out.flush();
+        } catch (IOException e) {
+            System.out.println("❌ Error writing report: " + e.getMessage());
+        }
+    }
+    
+    private void coEnrollmentReport() {
+        try {
+            System.out.print("Pairs per course (default 3): ");
+            String input = scanner.nextLine().trim();
+            int n = input.isEmpty() ? 3 : Integer.parseInt(input);
+            
+            long started = System.nanoTime();
+            CoEnrollmentMatrix matrix = reportEngine.coEnrollment(studentService.snapshot(), courseService.snapshot());
+            Writer out = consoleWriter();
+            reportEngine.writeCoEnrollment(matrix, n, out);
+            out.flush();
+            System.out.printf("%d courses, %d co-enrolled pairs, built in %d ms%n",
+                matrix.getCourseCount(), matrix.getPairCount(), (System.nanoTime() - started) / 1_000_000);
+            
+            System.out.print("Export matrix (Matrix Market)? (y/N): ");
+            if (scanner.nextLine().trim().equalsIgnoreCase("y")) {
+                Path file = AppConfig.getInstance().getDataDirectory().resolve("co_enrollment.mtx");
+                try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+                    matrix.writeMatrixMarket(writer);
+                }
+                System.out.println("✅ Matrix exported to: " + file);
+            }
+        } catch (IllegalArgumentException e) {
+            System.out.println("❌ Invalid input: " + e.getMessage());
+        } catch (IOException e) {
+            System.out.println("❌ Error writing report: " + e.getMessage());
+        }
+    }
+    
+    private void saveReports() {
+        Path filePath = AppConfig.getInstance().getDataDirectory().resolve("reports.txt");
+        try (Writer out = Files.newBufferedWriter(filePath, StandardCharsets.UTF_8)) {
+            reportEngine.writeGpaDistribution(studentService.snapshot(), out);
+            reportEngine.writeCoursesByDepartment(courseService.snapshot(), out);
+            System.out.println("✅ Reports saved to: " + filePath);
+        } catch (IOException e) {
+            System.out.println("❌ Error saving reports: " + e.getMessage());
         }
-        
-        System.out.println("\n👨‍🏫 COURSES TAUGHT BY " + instructorId);
-        System.out.println("-".repeat(50));
-        courses.forEach(course -> {
-            System.out.println("• " + course.getCode() + " - " + course.getTitle() + 
-                " (" + course.getCredits() + " credits)");
-        });
     }
     
     private void printJavaPlatformInfo() {
@@ -1,29 +1,200 @@
 // AppConfig.java
 package edu.ccrm.config;
 
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
 
+/**
+ * Immutable snapshot of every setting. Each knob is looked up as a system property
+ * ("ccrm.jobThreads"), then an environment variable ("CCRM_JOB_THREADS"), then the
+ * properties file named by ccrm.configFile (default ccrm.properties), then its default.
+ * getInstance() is a plain volatile read; reload() swaps in a new snapshot and tells
+ * the listeners. Knobs read per operation (credit limit, batch and buffer sizes, job
+ * throttle, backup schedule, drop-folder ingestion) apply live; shard, pool and cache
+ * sizes apply to services created after the change.
+ */
 public class AppConfig {
-    private static AppConfig instance;
+    private static final List<BiConsumer<AppConfig, AppConfig>> listeners = new CopyOnWriteArrayList<>();
+    private static volatile AppConfig instance = initial();
+    
     private final Path dataDirectory;
     private final Path backupDirectory;
     private final int maxCreditsPerSemester;
+    private final boolean recordStoreEnabled;
+    private final int studentCacheSize;
+    private final boolean changeLogEnabled;
+    private final int changeBufferCapacity;
+    private final int viewCacheCapacity;
+    private final int reportParallelism;
+    private final int rankingSize;
+    private final int studentShards;
+    private final int batchSize;
+    private final int ioBufferSize;
+    private final int jobThreads;
+    private final long jobBytesPerSecond;
+    private final int backupIntervalMinutes;
+    private final int backupKeepHourly;
+    private final int backupKeepDaily;
+    private final long backupUpkeepPauseMillis;
+    private final boolean dropFolderIngestEnabled;
     
-    private AppConfig() {
-        this.dataDirectory = Paths.get("data");
-        this.backupDirectory = Paths.get("backups");
-        this.maxCreditsPerSemester = 18;
+    private AppConfig(Function<String, String> source) {
+        this.dataDirectory = Paths.get(text(source, "ccrm.dataDirectory", "data"));
+        this.backupDirectory = Paths.get(text(source, "ccrm.backupDirectory", "backups"));
+        this.maxCreditsPerSemester = intKnob(source, "ccrm.maxCreditsPerSemester", 18, 1);
+        this.recordStoreEnabled = flag(source, "ccrm.recordStore");
+        this.studentCacheSize = intKnob(source, "ccrm.studentCacheSize", 10_000, 1);
+        this.changeLogEnabled = flag(source, "ccrm.changeLog");
+        this.changeBufferCapacity = intKnob(source, "ccrm.changeBufferCapacity", 4096, 1);
+        this.viewCacheCapacity = intKnob(source, "ccrm.viewCacheCapacity", 4096, 1);
+        this.reportParallelism = intKnob(source, "ccrm.reportParallelism",
+            Runtime.getRuntime().availableProcessors(), 1);
+        this.rankingSize = intKnob(source, "ccrm.rankingSize", 10, 1);
+        this.studentShards = intKnob(source, "ccrm.studentShards", 1, 1);
+        this.batchSize = intKnob(source, "ccrm.batchSize", 256, 1);
+        this.ioBufferSize = intKnob(source, "ccrm.ioBufferSize", 1 << 16, 1024);
+        this.jobThreads = intKnob(source, "ccrm.jobThreads", 2, 1);
+        this.jobBytesPerSecond = longKnob(source, "ccrm.jobBytesPerSecond", 0L);
+        this.backupIntervalMinutes = intKnob(source, "ccrm.backupIntervalMinutes", 0, 0);
+        this.backupKeepHourly = intKnob(source, "ccrm.backupKeepHourly", 24, 0);
+        this.backupKeepDaily = intKnob(source, "ccrm.backupKeepDaily", 7, 0);
+        this.backupUpkeepPauseMillis = longKnob(source, "ccrm.backupUpkeepPauseMillis", 50L);
+        this.dropFolderIngestEnabled = flag(source, "ccrm.dropFolderIngest");
     }
     
-    public static synchronized AppConfig getInstance() {
-        if (instance == null) {
-            instance = new AppConfig();
-        }
+    // Read on every enrollment, so the common path must not take a lock.
+    public static AppConfig getInstance() {
         return instance;
     }
     
+    // A bad value in any source must not stop the application from starting, so the
+    // fallback uses defaults alone; reload() reports errors instead.
+    private static AppConfig initial() {
+        try {
+            return load();
+        } catch (IllegalArgumentException | UncheckedIOException e) {
+            System.err.println("Invalid configuration, using defaults: " + e.getMessage());
+            return new AppConfig(key -> null);
+        }
+    }
+    
+    private static AppConfig load() {
+        Properties file = readFile(getConfigFile());
+        return new AppConfig(key -> lookup(key, file));
+    }
+    
+    // Re-reads all sources; on an invalid value the current snapshot stays in place.
+    public static synchronized AppConfig reload() {
+        AppConfig previous = instance;
+        AppConfig current = load();
+        instance = current;
+        listeners.forEach(listener -> listener.accept(previous, current));
+        return current;
+    }
+    
+    // Called with the previous and the new snapshot after every successful reload.
+    public static void addReloadListener(BiConsumer<AppConfig, AppConfig> listener) {
+        listeners.add(listener);
+    }
+    
+    public static void removeReloadListener(BiConsumer<AppConfig, AppConfig> listener) {
+        listeners.remove(listener);
+    }
+    
+    public static ConfigWatcher watch() throws IOException {
+        return new ConfigWatcher(getConfigFile());
+    }
+    
+    public static Path getConfigFile() {
+        String file = System.getProperty("ccrm.configFile", System.getenv("CCRM_CONFIG_FILE"));
+        return Paths.get(file != null ? file : "ccrm.properties");
+    }
+    
+    private static Properties readFile(Path file) {
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(file)) {
+            properties.load(reader);
+        } catch (NoSuchFileException e) {
+            // No file: defaults, system properties and environment only.
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to read " + file, e);
+        }
+        return properties;
+    }
+    
+    private static String lookup(String key, Properties file) {
+        String value = System.getProperty(key);
+        if (value == null) value = System.getenv(environmentName(key));
+        if (value == null) value = file.getProperty(key);
+        return value != null && !value.isBlank() ? value.trim() : null;
+    }
+    
+    // ccrm.jobBytesPerSecond -> CCRM_JOB_BYTES_PER_SECOND
+    static String environmentName(String key) {
+        return key.replace('.', '_').replaceAll("([a-z0-9])([A-Z])", "$1_$2").toUpperCase(Locale.ROOT);
+    }
+    
+    private static String text(Function<String, String> source, String key, String defaultValue) {
+        String value = source.apply(key);
+        return value != null ? value : defaultValue;
+    }
+    
+    private static boolean flag(Function<String, String> source, String key) {
+        return Boolean.parseBoolean(source.apply(key));
+    }
+    
+    private static int intKnob(Function<String, String> source, String key, int defaultValue, int min) {
+        long value = longKnob(source, key, defaultValue);
+        if (value < min || value > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException(key + " must be between " + min + " and " + Integer.MAX_VALUE + ": " + value);
+        }
+        return (int) value;
+    }
+    
+    private static long longKnob(Function<String, String> source, String key, long defaultValue) {
+        String value = source.apply(key);
+        if (value == null) return defaultValue;
+        try {
+            long parsed = Long.parseLong(value.replace("_", ""));
+            if (parsed < 0) throw new IllegalArgumentException(key + " must not be negative: " + value);
+            return parsed;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(key + " is not a whole number: " + value);
+        }
+    }
+    
     public Path getDataDirectory() { return dataDirectory; }
     public Path getBackupDirectory() { return backupDirectory; }
     public int getMaxCreditsPerSemester() { return maxCreditsPerSemester; }
-}
\ No newline at end of file
+    public boolean isRecordStoreEnabled() { return recordStoreEnabled; }
+    public Path getStudentStoreFile() { return dataDirectory.resolve("students.dat"); }
+    public Path getImportFingerprintFile() { return dataDirectory.resolve("student-fingerprints.dat"); }
+    public int getStudentCacheSize() { return studentCacheSize; }
+    public boolean isChangeLogEnabled() { return changeLogEnabled; }
+    public Path getChangeLogFile() { return dataDirectory.resolve("changes.ndjson"); }
+    public int getChangeBufferCapacity() { return changeBufferCapacity; }
+    public int getViewCacheCapacity() { return viewCacheCapacity; }
+    public int getReportParallelism() { return reportParallelism; }
+    public int getRankingSize() { return rankingSize; }
+    public int getStudentShards() { return studentShards; }
+    public int getBatchSize() { return batchSize; }
+    public int getIoBufferSize() { return ioBufferSize; }
+    public int getJobThreads() { return jobThreads; }
+    public long getJobBytesPerSecond() { return jobBytesPerSecond; }
+    public int getBackupIntervalMinutes() { return backupIntervalMinutes; }
+    public int getBackupKeepHourly() { return backupKeepHourly; }
+    public int getBackupKeepDaily() { return backupKeepDaily; }
+    public long getBackupUpkeepPauseMillis() { return backupUpkeepPauseMillis; }
+    public boolean isDropFolderIngestEnabled() { return dropFolderIngestEnabled; }
+}
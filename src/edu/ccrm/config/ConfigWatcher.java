@@ -0,0 +1,85 @@
+package edu.ccrm.config;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reloads AppConfig when its properties file changes. Editors often replace the file
+ * instead of rewriting it, so the directory is watched for any event on the file's
+ * name, and a burst of events (truncate, write, rename) settles into one reload.
+ */
+public class ConfigWatcher implements AutoCloseable {
+    private static final long SETTLE_MILLIS = 200;
+    
+    private final Path file;
+    private final WatchService watchService;
+    private final Thread thread;
+    private volatile String lastStatus = "Watching";
+    
+    ConfigWatcher(Path file) throws IOException {
+        this.file = file.toAbsolutePath().normalize();
+        Path directory = this.file.getParent();
+        this.watchService = directory.getFileSystem().newWatchService();
+        directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+            StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+        this.thread = new Thread(this::watch, "ccrm-config-watcher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+    
+    public Path getFile() { return file; }
+    public String getLastStatus() { return lastStatus; }
+    
+    private void watch() {
+        try {
+            while (true) {
+                if (!affectsFile(watchService.take())) continue;
+                WatchKey more;
+                while ((more = watchService.poll(SETTLE_MILLIS, TimeUnit.MILLISECONDS)) != null) {
+                    affectsFile(more);
+                }
+                reload();
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // Closed.
+        }
+    }
+    
+    private boolean affectsFile(WatchKey key) {
+        boolean affected = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW || file.getFileName().equals(event.context())) {
+                affected = true;
+            }
+        }
+        key.reset();
+        return affected;
+    }
+    
+    private void reload() {
+        try {
+            AppConfig.reload();
+            lastStatus = "Reloaded " + file.getFileName() + " at " + java.time.LocalTime.now().withNano(0);
+        } catch (IllegalArgumentException | UncheckedIOException e) {
+            lastStatus = "Kept previous settings: " + e.getMessage();
+            System.err.println("Configuration not reloaded: " + e.getMessage());
+        }
+    }
+    
+    @Override
+    public void close() {
+        try {
+            watchService.close();
+        } catch (IOException e) {
+            // Nothing left to release.
+        }
+        thread.interrupt();
+    }
+}
@@ -0,0 +1,21 @@
+package edu.ccrm.domain;
+
+import java.util.Comparator;
+
+public record AcademicTerm(int year, Semester semester) implements Comparable<AcademicTerm> {
+    private static final Comparator<AcademicTerm> ORDER = Comparator
+        .comparingInt(AcademicTerm::year)
+        .thenComparing(AcademicTerm::semester, Comparator.nullsFirst(Comparator.naturalOrder()));
+    
+    public static AcademicTerm of(Course course) {
+        return new AcademicTerm(course.getAcademicYear(), course.getSemester());
+    }
+    
+    @Override
+    public int compareTo(AcademicTerm other) { return ORDER.compare(this, other); }
+    
+    @Override
+    public String toString() {
+        return (semester != null ? semester.getDisplayName() : "Unscheduled") + " " + year;
+    }
+}
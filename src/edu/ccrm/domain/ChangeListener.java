@@ -0,0 +1,8 @@
+package edu.ccrm.domain;
+
+@FunctionalInterface
+public interface ChangeListener {
+    ChangeListener NONE = (entityType, entityId, type, detail) -> {};
+    
+    void onChange(String entityType, String entityId, ChangeType type, String detail);
+}
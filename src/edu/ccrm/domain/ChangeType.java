@@ -0,0 +1,5 @@
+package edu.ccrm.domain;
+
+public enum ChangeType {
+    CREATED, UPDATED, ACTIVATED, DEACTIVATED, ENROLLED, UNENROLLED, GRADE_RECORDED
+}
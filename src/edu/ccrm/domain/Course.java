@@ -1,5 +1,9 @@
 package edu.ccrm.domain;
 
+import edu.ccrm.util.Interner;
+
+import java.time.LocalDateTime;
+import java.time.Year;
 import java.util.Objects;
 
 public class Course {
@@ -8,8 +12,12 @@ public class Course {
     private final int credits;
     private String instructorId;
     private Semester semester;
+    private int academicYear;
     private String department;
     private boolean active;
+    private long createdAt;
+    private long updatedAt;
+    private ChangeListener changeListener = ChangeListener.NONE;
     
     public static class Builder {
         private String code;
@@ -17,7 +25,11 @@ public class Course {
         private int credits = 3;
         private String instructorId;
         private Semester semester;
+        private int academicYear = Year.now().getValue();
         private String department;
+        private boolean active = true;
+        private long createdAt = System.currentTimeMillis();
+        private long updatedAt = createdAt;
         
         public Builder code(String code) { this.code = code; return this; }
         public Builder title(String title) { this.title = title; return this; }
@@ -27,31 +39,80 @@ public class Course {
         }
         public Builder instructorId(String instructorId) { this.instructorId = instructorId; return this; }
         public Builder semester(Semester semester) { this.semester = semester; return this; }
+        public Builder academicYear(int academicYear) { this.academicYear = academicYear; return this; }
         public Builder department(String department) { this.department = department; return this; }
+        public Builder active(boolean active) { this.active = active; return this; }
+        // Epoch millis; for records loaded from an export, which keep their original times.
+        public Builder createdAt(long createdAt) { this.createdAt = createdAt; return this; }
+        public Builder updatedAt(long updatedAt) { this.updatedAt = updatedAt; return this; }
         public Course build() { return new Course(this); }
     }
     
     private Course(Builder builder) {
-        this.code = Objects.requireNonNull(builder.code, "Course code cannot be null");
+        this.code = Interner.intern(Objects.requireNonNull(builder.code, "Course code cannot be null"));
         this.title = Objects.requireNonNull(builder.title, "Course title cannot be null");
         this.credits = builder.credits;
-        this.instructorId = builder.instructorId;
+        this.instructorId = Interner.intern(builder.instructorId);
         this.semester = builder.semester;
-        this.department = builder.department;
-        this.active = true;
+        this.academicYear = builder.academicYear;
+        this.department = Interner.intern(builder.department);
+        this.active = builder.active;
+        this.createdAt = builder.createdAt;
+        this.updatedAt = builder.updatedAt;
     }
     
     public String getCode() { return code; }
     public String getTitle() { return title; }
     public int getCredits() { return credits; }
     public String getInstructorId() { return instructorId; }
-    public void setInstructorId(String instructorId) { this.instructorId = instructorId; }
+    public void setInstructorId(String instructorId) {
+        this.instructorId = Interner.intern(instructorId);
+        fireChange(ChangeType.UPDATED, "instructorId");
+    }
     public Semester getSemester() { return semester; }
-    public void setSemester(Semester semester) { this.semester = semester; }
+    public void setSemester(Semester semester) {
+        this.semester = semester;
+        fireChange(ChangeType.UPDATED, "semester");
+    }
+    public int getAcademicYear() { return academicYear; }
+    public void setAcademicYear(int academicYear) {
+        this.academicYear = academicYear;
+        fireChange(ChangeType.UPDATED, "academicYear");
+    }
+    public AcademicTerm getTerm() { return AcademicTerm.of(this); }
     public String getDepartment() { return department; }
-    public void setDepartment(String department) { this.department = department; }
+    public void setDepartment(String department) {
+        this.department = Interner.intern(department);
+        fireChange(ChangeType.UPDATED, "department");
+    }
     public boolean isActive() { return active; }
-    public void setActive(boolean active) { this.active = active; }
+    public void setActive(boolean active) {
+        this.active = active;
+        fireChange(active ? ChangeType.ACTIVATED : ChangeType.DEACTIVATED, null);
+    }
+    public LocalDateTime getCreatedAt() { return Person.toDateTime(createdAt); }
+    public LocalDateTime getUpdatedAt() { return Person.toDateTime(updatedAt); }
+    public long getCreatedAtMillis() { return createdAt; }
+    public long getUpdatedAtMillis() { return updatedAt; }
+    
+    // Detached copy with the same state and no change listener.
+    public Course copy() {
+        Course copy = new Builder().code(code).title(title).credits(credits).instructorId(instructorId)
+            .semester(semester).academicYear(academicYear).department(department).build();
+        copy.active = active;
+        copy.createdAt = createdAt;
+        copy.updatedAt = updatedAt;
+        return copy;
+    }
+    
+    public void setChangeListener(ChangeListener listener) {
+        this.changeListener = listener != null ? listener : ChangeListener.NONE;
+    }
+    
+    private void fireChange(ChangeType type, String detail) {
+        this.updatedAt = System.currentTimeMillis();
+        changeListener.onChange("Course", code, type, detail);
+    }
     
     @Override
     public String toString() {
@@ -67,5 +128,5 @@ public class Course {
     }
     
     @Override
-    public int hashCode() { return Objects.hash(code); }
+    public int hashCode() { return code.hashCode(); }
 }
\ No newline at end of file
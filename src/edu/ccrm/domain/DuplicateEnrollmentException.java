@@ -1,5 +1,6 @@
 package edu.ccrm.domain;
 public class DuplicateEnrollmentException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
     public DuplicateEnrollmentException(String studentId, String courseId) {
         super(String.format("Student %s is already enrolled in course %s", studentId, courseId));
     }
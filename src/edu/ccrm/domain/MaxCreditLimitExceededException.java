@@ -1,5 +1,6 @@
 package edu.ccrm.domain;
 public class MaxCreditLimitExceededException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
     private final int currentCredits, attemptedCredits, maxAllowed;
     public MaxCreditLimitExceededException(int current, int attempted, int max) {
         super(String.format("Credit limit exceeded: Current=%d, Attempted=%d, Max=%d", current, attempted, max));
@@ -1,6 +1,8 @@
 package edu.ccrm.domain;
 
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.Objects;
 
 public abstract class Person {
@@ -8,16 +10,18 @@ public abstract class Person {
     protected String fullName;
     protected String email;
     protected boolean active;
-    protected LocalDateTime createdAt;
-    protected LocalDateTime updatedAt;
+    // Epoch millis; a LocalDateTime pair costs six objects per record.
+    protected long createdAt;
+    protected long updatedAt;
+    protected ChangeListener changeListener = ChangeListener.NONE;
     
     public Person(String id, String fullName, String email) {
         this.id = Objects.requireNonNull(id, "ID cannot be null");
         this.fullName = Objects.requireNonNull(fullName, "Full name cannot be null");
         this.email = Objects.requireNonNull(email, "Email cannot be null");
         this.active = true;
-        this.createdAt = LocalDateTime.now();
-        this.updatedAt = LocalDateTime.now();
+        this.createdAt = System.currentTimeMillis();
+        this.updatedAt = createdAt;
     }
     
     public abstract String getRole();
@@ -26,20 +30,37 @@ public abstract class Person {
     public String getFullName() { return fullName; }
     public void setFullName(String fullName) { 
         this.fullName = Objects.requireNonNull(fullName);
-        this.updatedAt = LocalDateTime.now();
+        this.updatedAt = System.currentTimeMillis();
+        fireChange(ChangeType.UPDATED, "fullName");
     }
     public String getEmail() { return email; }
     public void setEmail(String email) { 
         this.email = Objects.requireNonNull(email);
-        this.updatedAt = LocalDateTime.now();
+        this.updatedAt = System.currentTimeMillis();
+        fireChange(ChangeType.UPDATED, "email");
     }
     public boolean isActive() { return active; }
     public void setActive(boolean active) { 
         this.active = active;
-        this.updatedAt = LocalDateTime.now();
+        this.updatedAt = System.currentTimeMillis();
+        fireChange(active ? ChangeType.ACTIVATED : ChangeType.DEACTIVATED, null);
+    }
+    public LocalDateTime getCreatedAt() { return toDateTime(createdAt); }
+    public LocalDateTime getUpdatedAt() { return toDateTime(updatedAt); }
+    public long getCreatedAtMillis() { return createdAt; }
+    public long getUpdatedAtMillis() { return updatedAt; }
+    
+    static LocalDateTime toDateTime(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+    }
+    
+    public void setChangeListener(ChangeListener listener) {
+        this.changeListener = listener != null ? listener : ChangeListener.NONE;
+    }
+    
+    protected void fireChange(ChangeType type, String detail) {
+        changeListener.onChange(getRole(), id, type, detail);
     }
-    public LocalDateTime getCreatedAt() { return createdAt; }
-    public LocalDateTime getUpdatedAt() { return updatedAt; }
     
     @Override
     public String toString() {
@@ -55,5 +76,5 @@ public abstract class Person {
     }
     
     @Override
-    public int hashCode() { return Objects.hash(id); }
+    public int hashCode() { return id.hashCode(); } // String caches its own hash
 }
\ No newline at end of file
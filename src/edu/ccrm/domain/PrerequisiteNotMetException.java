@@ -0,0 +1,14 @@
+package edu.ccrm.domain;
+
+import java.util.List;
+
+public class PrerequisiteNotMetException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+    // An array, unlike List, is a serializable field type.
+    private final String[] missing;
+    public PrerequisiteNotMetException(String studentId, String courseId, List<String> missing) {
+        super(String.format("Student %s has not completed the prerequisites for %s: %s", studentId, courseId, missing));
+        this.missing = missing.toArray(String[]::new);
+    }
+    public List<String> getMissing() { return List.of(missing); }
+}
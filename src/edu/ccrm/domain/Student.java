@@ -1,64 +1,172 @@
 package edu.ccrm.domain;
 
+import edu.ccrm.util.Interner;
+
 import java.util.*;
 import java.time.LocalDateTime;
 
 public class Student extends Person {
+    private static final String[] NO_COURSES = {};
+    private static final double[] NO_SCORES = {};
+    
     private final String regNo;
-    private final Set<String> enrolledCourses;
-    private final Map<String, Double> courseGrades;
-    private final Map<String, Grade> courseLetterGrades;
+    // Parallel arrays in enrollment order; NaN marks an ungraded course. Letter
+    // grades are derived from the score. Removal replaces the arrays, so an
+    // iteration in progress keeps seeing the set it started with.
+    private String[] courseIds = NO_COURSES;
+    private double[] scores = NO_SCORES;
+    private int courseCount;
     
     public static class Builder {
         private String id;
         private String regNo;
         private String fullName;
         private String email;
+        private boolean active = true;
+        private long createdAt = System.currentTimeMillis();
+        private long updatedAt = createdAt;
         
         public Builder id(String id) { this.id = id; return this; }
         public Builder regNo(String regNo) { this.regNo = regNo; return this; }
         public Builder fullName(String fullName) { this.fullName = fullName; return this; }
         public Builder email(String email) { this.email = email; return this; }
+        public Builder active(boolean active) { this.active = active; return this; }
+        // Epoch millis; for records loaded from an export, which keep their original times.
+        public Builder createdAt(long createdAt) { this.createdAt = createdAt; return this; }
+        public Builder updatedAt(long updatedAt) { this.updatedAt = updatedAt; return this; }
         public Student build() { return new Student(this); }
     }
     
     private Student(Builder builder) {
         super(builder.id, builder.fullName, builder.email);
         this.regNo = Objects.requireNonNull(builder.regNo, "Registration number cannot be null");
-        this.enrolledCourses = new HashSet<>();
-        this.courseGrades = new HashMap<>();
-        this.courseLetterGrades = new HashMap<>();
+        this.active = builder.active;
+        this.createdAt = builder.createdAt;
+        this.updatedAt = builder.updatedAt;
     }
     
     @Override
     public String getRole() { return "Student"; }
     public String getRegNo() { return regNo; }
     
-    public boolean enrollInCourse(String courseId) { return enrolledCourses.add(courseId); }
+    private int indexOf(String courseId) {
+        for (int i = 0; i < courseCount; i++) {
+            if (courseIds[i].equals(courseId)) return i;
+        }
+        return -1;
+    }
+    
+    // The ID is kept as given: it may come from a row that is still to be validated, and
+    // the service swaps in the shared instance once the enrollment is accepted.
+    public boolean enrollInCourse(String courseId) {
+        Objects.requireNonNull(courseId, "Course ID cannot be null");
+        if (indexOf(courseId) >= 0) return false;
+        if (courseCount == courseIds.length) {
+            int capacity = Math.max(4, courseCount * 2);
+            courseIds = Arrays.copyOf(courseIds, capacity);
+            scores = Arrays.copyOf(scores, capacity);
+        }
+        courseIds[courseCount] = courseId;
+        scores[courseCount] = Double.NaN;
+        courseCount++;
+        fireChange(ChangeType.ENROLLED, courseId);
+        return true;
+    }
+    // Replaces each course ID by its pooled instance.
+    public void internCourseIds() {
+        for (int i = 0; i < courseCount; i++) courseIds[i] = Interner.intern(courseIds[i]);
+    }
     public boolean unenrollFromCourse(String courseId) {
-        courseGrades.remove(courseId);
-        courseLetterGrades.remove(courseId);
-        return enrolledCourses.remove(courseId);
+        int index = indexOf(courseId);
+        if (index < 0) return false;
+        String[] ids = new String[courseIds.length];
+        double[] marks = new double[scores.length];
+        System.arraycopy(courseIds, 0, ids, 0, index);
+        System.arraycopy(courseIds, index + 1, ids, index, courseCount - index - 1);
+        System.arraycopy(scores, 0, marks, 0, index);
+        System.arraycopy(scores, index + 1, marks, index, courseCount - index - 1);
+        courseIds = ids;
+        scores = marks;
+        courseCount--;
+        fireChange(ChangeType.UNENROLLED, courseId);
+        return true;
+    }
+    public Set<String> getEnrolledCourses() {
+        String[] ids = courseIds;
+        int count = Math.min(courseCount, ids.length);
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<String> iterator() {
+                return new Iterator<>() {
+                    private int next;
+                    
+                    @Override
+                    public boolean hasNext() { return next < count; }
+                    
+                    @Override
+                    public String next() {
+                        if (next >= count) throw new NoSuchElementException();
+                        return ids[next++];
+                    }
+                };
+            }
+            
+            @Override
+            public int size() { return count; }
+            
+            @Override
+            public boolean contains(Object o) {
+                for (int i = 0; i < count; i++) {
+                    if (ids[i].equals(o)) return true;
+                }
+                return false;
+            }
+        };
+    }
+    
+    // Detached copy with the same state and no change listener.
+    public Student copy() {
+        Student copy = new Student(new Builder().id(id).regNo(regNo).fullName(fullName).email(email));
+        if (courseCount > 0) {
+            copy.courseIds = Arrays.copyOf(courseIds, courseCount);
+            copy.scores = Arrays.copyOf(scores, courseCount);
+            copy.courseCount = courseCount;
+        }
+        copy.active = active;
+        copy.createdAt = createdAt;
+        copy.updatedAt = updatedAt;
+        return copy;
     }
-    public Set<String> getEnrolledCourses() { return Collections.unmodifiableSet(enrolledCourses); }
     
     public void recordGrade(String courseId, double score) {
-        if (!enrolledCourses.contains(courseId)) {
+        int index = indexOf(courseId);
+        if (index < 0) {
             throw new IllegalArgumentException("Student not enrolled in course: " + courseId);
         }
-        courseGrades.put(courseId, score);
-        courseLetterGrades.put(courseId, Grade.fromScore(score));
+        if (Double.isNaN(score)) throw new IllegalArgumentException("Score must be a number");
+        scores[index] = score;
+        fireChange(ChangeType.GRADE_RECORDED, courseId + "=" + score);
     }
     
-    public Double getGrade(String courseId) { return courseGrades.get(courseId); }
-    public Grade getLetterGrade(String courseId) { return courseLetterGrades.get(courseId); }
+    public Double getGrade(String courseId) {
+        int index = indexOf(courseId);
+        return index < 0 || Double.isNaN(scores[index]) ? null : scores[index];
+    }
+    public Grade getLetterGrade(String courseId) {
+        Double score = getGrade(courseId);
+        return score != null ? Grade.fromScore(score) : null;
+    }
     
     public double calculateGPA() {
-        if (courseGrades.isEmpty()) return 0.0;
-        return courseLetterGrades.values().stream()
-            .mapToInt(Grade::getPoints)
-            .average()
-            .orElse(0.0);
+        int graded = 0;
+        int points = 0;
+        for (int i = 0; i < courseCount; i++) {
+            if (!Double.isNaN(scores[i])) {
+                graded++;
+                points += Grade.fromScore(scores[i]).getPoints();
+            }
+        }
+        return graded == 0 ? 0.0 : (double) points / graded;
     }
     
     public Transcript generateTranscript() { return new Transcript(this); }
@@ -83,12 +191,12 @@ public class Student extends Person {
             sb.append("COURSES AND GRADES\n");
             sb.append("==================\n");
             
-            student.courseGrades.entrySet().stream()
-                .sorted(Map.Entry.comparingByKey())
-                .forEach(entry -> {
-                    String courseId = entry.getKey();
-                    double score = entry.getValue();
-                    Grade grade = student.courseLetterGrades.get(courseId);
+            student.getEnrolledCourses().stream()
+                .filter(courseId -> student.getGrade(courseId) != null)
+                .sorted()
+                .forEach(courseId -> {
+                    double score = student.getGrade(courseId);
+                    Grade grade = Grade.fromScore(score);
                     sb.append(String.format("Course: %s | Score: %.2f | Grade: %s (%s)%n", 
                         courseId, score, grade, grade.getDescription()));
                 });
@@ -0,0 +1,42 @@
+package edu.ccrm.event;
+
+import edu.ccrm.domain.ChangeType;
+
+public record ChangeEvent(long sequence, long timestamp, String entityType, String entityId,
+                          ChangeType type, String detail) {
+    
+    public String toJson() {
+        StringBuilder sb = new StringBuilder(96);
+        sb.append("{\"seq\":").append(sequence)
+          .append(",\"ts\":").append(timestamp)
+          .append(",\"entity\":");
+        appendString(sb, entityType);
+        sb.append(",\"id\":");
+        appendString(sb, entityId);
+        sb.append(",\"type\":\"").append(type).append('"');
+        if (detail != null) {
+            sb.append(",\"detail\":");
+            appendString(sb, detail);
+        }
+        return sb.append('}').toString();
+    }
+    
+    private static void appendString(StringBuilder sb, String value) {
+        sb.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> sb.append("\\\"");
+                case '\\' -> sb.append("\\\\");
+                case '\n' -> sb.append("\\n");
+                case '\r' -> sb.append("\\r");
+                case '\t' -> sb.append("\\t");
+                default -> {
+                    if (c < 0x20) sb.append(String.format("\\u%04x", (int) c));
+                    else sb.append(c);
+                }
+            }
+        }
+        sb.append('"');
+    }
+}
@@ -0,0 +1,171 @@
+package edu.ccrm.event;
+
+import edu.ccrm.domain.ChangeListener;
+import edu.ccrm.domain.ChangeType;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded ring buffer of change events. Every subscriber reads through its own
+ * cursor; when the slowest cursor is a full ring behind, publishers either wait
+ * (BLOCK) or the lagging subscribers skip ahead and count the loss (DROP_OLDEST).
+ */
+public class ChangeEventBus implements ChangeListener {
+    public enum Backpressure { BLOCK, DROP_OLDEST }
+    
+    private final ChangeEvent[] ring;
+    private final int mask;
+    private final Backpressure backpressure;
+    private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Condition notFull = lock.newCondition();
+    private long nextSequence;
+    
+    public ChangeEventBus(int capacity, Backpressure backpressure) {
+        if (capacity <= 0 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Capacity must be a positive power of two: " + capacity);
+        }
+        this.ring = new ChangeEvent[capacity];
+        this.mask = capacity - 1;
+        this.backpressure = backpressure;
+    }
+    
+    @Override
+    public void onChange(String entityType, String entityId, ChangeType type, String detail) {
+        publish(entityType, entityId, type, detail);
+    }
+    
+    public long publish(String entityType, String entityId, ChangeType type, String detail) {
+        lock.lock();
+        try {
+            if (backpressure == Backpressure.BLOCK) {
+                while (nextSequence - slowestCursor() >= ring.length) {
+                    notFull.awaitUninterruptibly();
+                }
+            }
+            long sequence = nextSequence++;
+            ring[(int) (sequence & mask)] = new ChangeEvent(
+                sequence, System.currentTimeMillis(), entityType, entityId, type, detail);
+            notEmpty.signalAll();
+            return sequence;
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    private long slowestCursor() {
+        long min = nextSequence;
+        for (Subscription subscription : subscriptions) {
+            min = Math.min(min, subscription.cursor);
+        }
+        return min;
+    }
+    
+    // New subscribers start at the head and only see events published after subscribing.
+    public Subscription subscribe(String name) {
+        lock.lock();
+        try {
+            Subscription subscription = new Subscription(name, nextSequence);
+            subscriptions.add(subscription);
+            return subscription;
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    public long getPublishedCount() {
+        lock.lock();
+        try {
+            return nextSequence;
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    public int getCapacity() { return ring.length; }
+    
+    public class Subscription implements AutoCloseable {
+        private final String name;
+        private long cursor;
+        private long missed;
+        
+        private Subscription(String name, long cursor) {
+            this.name = name;
+            this.cursor = cursor;
+        }
+        
+        public String getName() { return name; }
+        
+        public List<ChangeEvent> poll(int maxBatch) {
+            lock.lock();
+            try {
+                return drain(maxBatch);
+            } finally {
+                lock.unlock();
+            }
+        }
+        
+        public List<ChangeEvent> take(int maxBatch, long timeout, TimeUnit unit) throws InterruptedException {
+            long nanos = unit.toNanos(timeout);
+            lock.lock();
+            try {
+                while (cursor == nextSequence && nanos > 0) {
+                    nanos = notEmpty.awaitNanos(nanos);
+                }
+                return drain(maxBatch);
+            } finally {
+                lock.unlock();
+            }
+        }
+        
+        private List<ChangeEvent> drain(int maxBatch) {
+            long oldest = nextSequence - ring.length;
+            if (cursor < oldest) {
+                missed += oldest - cursor;
+                cursor = oldest;
+            }
+            int count = (int) Math.min(maxBatch, nextSequence - cursor);
+            List<ChangeEvent> batch = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                batch.add(ring[(int) (cursor++ & mask)]);
+            }
+            if (count > 0) notFull.signalAll();
+            return batch;
+        }
+        
+        public long getLag() {
+            lock.lock();
+            try {
+                return nextSequence - cursor;
+            } finally {
+                lock.unlock();
+            }
+        }
+        
+        public long getMissed() {
+            lock.lock();
+            try {
+                return missed;
+            } finally {
+                lock.unlock();
+            }
+        }
+        
+        @Override
+        public void close() {
+            lock.lock();
+            try {
+                subscriptions.remove(this);
+                notFull.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package edu.ccrm.event;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Subscriber that appends every event to a file as one JSON object per line. If writing
+// fails the worker stops and unsubscribes, so a BLOCK bus never waits on a dead reader.
+public class FileEventSink implements AutoCloseable {
+    private static final int BATCH_SIZE = 256;
+    
+    private final ChangeEventBus.Subscription subscription;
+    private final BufferedWriter writer;
+    private final Thread worker;
+    private volatile boolean running = true;
+    private volatile boolean failed;
+    private long written;
+    
+    public FileEventSink(ChangeEventBus bus, Path file) throws IOException {
+        this.writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+            StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        this.subscription = bus.subscribe("file:" + file.getFileName());
+        this.worker = new Thread(this::run, "ccrm-event-sink");
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+    
+    private void run() {
+        try {
+            while (running) {
+                writeBatch(subscription.take(BATCH_SIZE, 200, TimeUnit.MILLISECONDS));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            failed = true;
+            System.err.println("Event sink stopped: " + e.getMessage());
+        } finally {
+            subscription.close();
+        }
+    }
+    
+    private void writeBatch(List<ChangeEvent> batch) throws IOException {
+        if (batch.isEmpty()) return;
+        for (ChangeEvent event : batch) {
+            writer.write(event.toJson());
+            writer.newLine();
+        }
+        writer.flush();
+        written += batch.size();
+    }
+    
+    public long getWrittenCount() { return written; }
+    
+    // Events the bus overwrote before this sink read them (DROP_OLDEST only).
+    public long getDroppedCount() { return subscription.getMissed(); }
+    
+    public boolean isFailed() { return failed; }
+    
+    @Override
+    public void close() throws IOException {
+        running = false;
+        try {
+            worker.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            List<ChangeEvent> batch;
+            while (!failed && !(batch = subscription.poll(BATCH_SIZE)).isEmpty()) {
+                writeBatch(batch);
+            }
+        } finally {
+            subscription.close();
+            writer.close();
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package edu.ccrm.io;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Takes backups on a fixed interval and keeps the backup directory bounded. Retention
+ * keeps the newest backup of each of the last N hours and of each of the last M days;
+ * everything else is deleted. Backups kept only as dailies are compacted into zips.
+ * All of it runs on one minimum-priority thread that pauses between I/O batches.
+ */
+public class BackupScheduler implements AutoCloseable {
+    public record Retention(int hourly, int daily) {
+        public Retention {
+            if (hourly < 0 || daily < 0) throw new IllegalArgumentException("Retention counts cannot be negative");
+        }
+    }
+    
+    public record UpkeepResult(int kept, int compacted, int deleted) {
+        @Override
+        public String toString() {
+            return String.format("%d kept, %d compacted, %d deleted", kept, compacted, deleted);
+        }
+    }
+    
+    private final Supplier<BackupService> backupService;
+    private final Path backupRoot;
+    private final Retention retention;
+    private final long pauseMillis;
+    private final ScheduledExecutorService scheduler;
+    private ScheduledFuture<?> schedule;
+    private Duration interval;
+    private volatile String lastStatus = "No scheduled backup yet";
+    
+    // The supplier is read on every run, so a restored service graph is picked up.
+    public BackupScheduler(Supplier<BackupService> backupService, Path backupRoot, Retention retention, long pauseMillis) {
+        this.backupService = backupService;
+        this.backupRoot = backupRoot;
+        this.retention = retention;
+        this.pauseMillis = Math.max(0, pauseMillis);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "ccrm-backup-scheduler");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+    }
+    
+    public synchronized void start(Duration interval) {
+        if (interval.isZero() || interval.isNegative()) throw new IllegalArgumentException("Interval must be positive");
+        stop();
+        this.interval = interval;
+        long millis = interval.toMillis();
+        schedule = scheduler.scheduleWithFixedDelay(this::runScheduled, millis, millis, TimeUnit.MILLISECONDS);
+    }
+    
+    public synchronized void stop() {
+        if (schedule != null) schedule.cancel(false);
+        schedule = null;
+        interval = null;
+    }
+    
+    public synchronized boolean isRunning() { return schedule != null; }
+    public synchronized Optional<Duration> getInterval() { return Optional.ofNullable(interval); }
+    public Retention getRetention() { return retention; }
+    public String getLastStatus() { return lastStatus; }
+    
+    public Future<UpkeepResult> runUpkeepNow() {
+        return scheduler.submit(this::upkeep);
+    }
+    
+    // An exception must not escape, or the executor would silently drop the schedule.
+    private void runScheduled() {
+        try {
+            Path backup = backupService.get().createBackup();
+            UpkeepResult result = upkeep();
+            lastStatus = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS) + ": backed up to "
+                + backup.getFileName() + "; " + result;
+        } catch (Exception e) {
+            lastStatus = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS) + ": scheduled backup failed: " + e.getMessage();
+        }
+    }
+    
+    private UpkeepResult upkeep() throws IOException {
+        List<BackupService.BackupInfo> backups = BackupService.listBackups(backupRoot);
+        Set<Path> hourly = newestPerBucket(backups, ChronoUnit.HOURS, retention.hourly());
+        Set<Path> daily = newestPerBucket(backups, ChronoUnit.DAYS, retention.daily());
+        int kept = 0, compacted = 0, deleted = 0;
+        for (int i = 0; i < backups.size(); i++) {
+            BackupService.BackupInfo backup = backups.get(i);
+            // The newest backup always survives, even with zero retention configured.
+            if (i == 0 || hourly.contains(backup.path())) {
+                kept++;
+            } else if (daily.contains(backup.path())) {
+                if (!backup.archived()) {
+                    BackupService.archiveBackup(backup.path(), this::pause);
+                    compacted++;
+                }
+                kept++;
+            } else {
+                BackupService.deleteBackup(backup.path(), this::pause);
+                deleted++;
+            }
+            pause();
+        }
+        return new UpkeepResult(kept, compacted, deleted);
+    }
+    
+    // Backups arrive newest first, so the first one seen in a bucket is its newest.
+    private static Set<Path> newestPerBucket(List<BackupService.BackupInfo> backups, ChronoUnit unit, int buckets) {
+        Set<Path> kept = new HashSet<>();
+        LocalDateTime lastBucket = null;
+        for (BackupService.BackupInfo backup : backups) {
+            if (kept.size() == buckets) break;
+            LocalDateTime bucket = backup.taken().truncatedTo(unit);
+            if (!bucket.equals(lastBucket)) {
+                kept.add(backup.path());
+                lastBucket = bucket;
+            }
+        }
+        return kept;
+    }
+    
+    private void pause() {
+        if (pauseMillis == 0) return;
+        try {
+            Thread.sleep(pauseMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    @Override
+    public void close() {
+        stop();
+        scheduler.shutdownNow();
+    }
+}
@@ -1,13 +1,49 @@
 package edu.ccrm.io;
 
 import edu.ccrm.config.AppConfig;
+import edu.ccrm.domain.Course;
+import edu.ccrm.domain.Student;
+import edu.ccrm.service.CourseService;
+import edu.ccrm.service.Snapshot;
+import edu.ccrm.service.StudentService;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.nio.file.*;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
 
 public class BackupService {
+    private static final String BACKUP_PREFIX = "backup_";
+    private static final DateTimeFormatter TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss");
+    // Directory names carry milliseconds so backups taken within one second stay apart;
+    // names without them are from older backups.
+    private static final DateTimeFormatter DIRECTORY_TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss_SSS");
+    private static final String STUDENTS_FILE = "students.csv";
+    private static final String COURSES_FILE = "courses.csv";
+    private static final String ENROLLMENTS_FILE = "enrollments.csv";
+    private static final String PREREQUISITES_FILE = "prerequisites.csv";
+    // Same layout as sha256sum output, so a backup can also be checked with `sha256sum -c`.
+    private static final String CHECKSUM_FILE = "checksums.sha256";
+    // Compacted backups: the same files in one zip named after the backup directory.
+    private static final String ARCHIVE_SUFFIX = ".zip";
+    private static final int PACE_BYTES = 1024 * 1024;
+    
+    public record BackupInfo(Path path, LocalDateTime taken, boolean archived) {}
+    
     private final ImportExportService importExportService;
     
     public BackupService(ImportExportService importExportService) {
@@ -15,23 +51,290 @@ public class BackupService {
     }
     
     public Path createBackup() throws IOException {
+        return createBackup(Progress.NONE);
+    }
+    
+    public Path createBackup(Progress progress) throws IOException {
+        // Take both snapshots up front so the backup reflects one point in time
+        // while enrollment traffic keeps running.
+        Snapshot<Course> courses = importExportService.getCourseService().snapshot();
+        Snapshot<Student> students = importExportService.getStudentService().snapshot();
+        
         Path backupDir = createBackupDirectory();
         
-        Path studentsFile = backupDir.resolve("students.csv");
-        Path coursesFile = backupDir.resolve("courses.csv");
+        Path studentsFile = backupDir.resolve(STUDENTS_FILE);
+        Path coursesFile = backupDir.resolve(COURSES_FILE);
+        Path enrollmentsFile = backupDir.resolve(ENROLLMENTS_FILE);
+        Path prerequisitesFile = backupDir.resolve(PREREQUISITES_FILE);
         
-        importExportService.exportStudentsToCSV(studentsFile);
-        importExportService.exportCoursesToCSV(coursesFile);
+        importExportService.exportStudentsToCSV(students, studentsFile, progress);
+        importExportService.exportCoursesToCSV(courses, coursesFile, progress);
+        importExportService.exportEnrollmentsToCSV(students, enrollmentsFile, progress);
+        importExportService.exportPrerequisitesToCSV(courses, prerequisitesFile, progress);
+        writeChecksums(backupDir, List.of(STUDENTS_FILE, COURSES_FILE, ENROLLMENTS_FILE, PREREQUISITES_FILE));
         
         return backupDir;
     }
     
+    // Never reuses a directory: a name that is already taken is an error rather than an overwrite.
     private Path createBackupDirectory() throws IOException {
-        // Fixed: Use AppConfig directly without unused variable
-        String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss"));
-        Path backupDir = AppConfig.getInstance().getBackupDirectory().resolve("backup_" + timestamp);
-        Files.createDirectories(backupDir);
-        return backupDir;
+        String timestamp = LocalDateTime.now().format(DIRECTORY_TIMESTAMP);
+        Path backupRoot = AppConfig.getInstance().getBackupDirectory();
+        Files.createDirectories(backupRoot);
+        return Files.createDirectory(backupRoot.resolve(BACKUP_PREFIX + timestamp));
+    }
+    
+    private static void writeChecksums(Path backupDir, List<String> fileNames) throws IOException {
+        List<String> lines = new ArrayList<>();
+        for (String fileName : fileNames) {
+            lines.add(sha256(backupDir.resolve(fileName)) + "  " + fileName);
+        }
+        Files.write(backupDir.resolve(CHECKSUM_FILE), lines);
+    }
+    
+    private static String sha256(Path file) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+        byte[] buffer = new byte[64 * 1024];
+        try (InputStream in = Files.newInputStream(file)) {
+            int read;
+            while ((read = in.read(buffer)) > 0) digest.update(buffer, 0, read);
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+    
+    // Accepts a backup directory, "latest", or a point in time (yyyyMMdd_HHmmss or
+    // yyyy-MM-ddTHH:mm[:ss]); a point in time picks the newest backup taken at or before it.
+    public Path resolveBackup(String spec) throws IOException {
+        Path direct = Paths.get(spec);
+        if (!spec.isEmpty() && (Files.isDirectory(direct) || isArchive(direct))) return direct;
+        
+        LocalDateTime pointInTime;
+        if (spec.isEmpty() || spec.equalsIgnoreCase("latest")) {
+            pointInTime = LocalDateTime.MAX;
+        } else {
+            try {
+                pointInTime = spec.contains("T") ? LocalDateTime.parse(spec) : LocalDateTime.parse(spec, TIMESTAMP);
+                // A time given to the second covers backups taken during that second.
+                if (pointInTime.getNano() == 0) pointInTime = pointInTime.plusNanos(999_999_999);
+            } catch (DateTimeParseException e) {
+                throw new IllegalArgumentException("Not a backup directory or timestamp: " + spec);
+            }
+        }
+        
+        Path backupRoot = AppConfig.getInstance().getBackupDirectory();
+        if (!Files.isDirectory(backupRoot)) throw new NoSuchFileException(backupRoot.toString());
+        for (BackupInfo backup : listBackups(backupRoot)) {
+            if (!backup.taken().isAfter(pointInTime)) return backup.path();
+        }
+        throw new NoSuchFileException("No backup at or before " + spec);
+    }
+    
+    // Backup directories and compacted archives, newest first.
+    public static List<BackupInfo> listBackups(Path backupRoot) throws IOException {
+        List<BackupInfo> backups = new ArrayList<>();
+        if (!Files.isDirectory(backupRoot)) return backups;
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(backupRoot, BACKUP_PREFIX + "*")) {
+            for (Path path : stream) {
+                boolean archived = isArchive(path);
+                if (!archived && !Files.isDirectory(path)) continue;
+                LocalDateTime taken = backupTime(path);
+                if (taken != null) backups.add(new BackupInfo(path, taken, archived));
+            }
+        }
+        backups.sort(Comparator.comparing(BackupInfo::taken).reversed());
+        return backups;
+    }
+    
+    private static boolean isArchive(Path path) {
+        return Files.isRegularFile(path) && path.getFileName().toString().endsWith(ARCHIVE_SUFFIX);
+    }
+    
+    private static LocalDateTime backupTime(Path path) {
+        String name = path.getFileName().toString();
+        if (name.endsWith(ARCHIVE_SUFFIX)) name = name.substring(0, name.length() - ARCHIVE_SUFFIX.length());
+        String timestamp = name.substring(BACKUP_PREFIX.length());
+        try {
+            return LocalDateTime.parse(timestamp, timestamp.length() > 15 ? DIRECTORY_TIMESTAMP : TIMESTAMP);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+    
+    // Replaces a backup directory by a zip of the same files. The zip is written under a
+    // temporary name and moved into place before the directory is removed; pacer runs
+    // after every megabyte so callers can keep the I/O in the background.
+    public static Path archiveBackup(Path backupDir, Runnable pacer) throws IOException {
+        Path archive = backupDir.resolveSibling(backupDir.getFileName() + ARCHIVE_SUFFIX);
+        Path partial = backupDir.resolveSibling(archive.getFileName() + ".tmp");
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(backupDir)) {
+            files = listing.filter(Files::isRegularFile).sorted().toList();
+        }
+        
+        byte[] buffer = new byte[64 * 1024];
+        long sincePause = 0;
+        try (ZipOutputStream zip = new ZipOutputStream(Files.newOutputStream(partial))) {
+            for (Path file : files) {
+                zip.putNextEntry(new ZipEntry(file.getFileName().toString()));
+                try (InputStream in = Files.newInputStream(file)) {
+                    int read;
+                    while ((read = in.read(buffer)) > 0) {
+                        zip.write(buffer, 0, read);
+                        sincePause += read;
+                        if (sincePause >= PACE_BYTES) {
+                            pacer.run();
+                            sincePause = 0;
+                        }
+                    }
+                }
+                zip.closeEntry();
+            }
+        }
+        Files.move(partial, archive, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        deleteBackup(backupDir, pacer);
+        return archive;
+    }
+    
+    // Deletes a backup directory or archive, pausing after every batch of files.
+    public static void deleteBackup(Path backup, Runnable pacer) throws IOException {
+        if (!Files.isDirectory(backup)) {
+            Files.deleteIfExists(backup);
+            return;
+        }
+        List<Path> files;
+        try (Stream<Path> walk = Files.walk(backup)) {
+            files = walk.sorted(Comparator.reverseOrder()).toList();
+        }
+        int deleted = 0;
+        for (Path file : files) {
+            Files.deleteIfExists(file);
+            if (++deleted % 64 == 0) pacer.run();
+        }
+    }
+    
+    private static Path unpackArchive(Path archive) throws IOException {
+        Path target = Files.createTempDirectory(archive.getParent(), "restore_");
+        try (ZipInputStream zip = new ZipInputStream(Files.newInputStream(archive))) {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                Path file = target.resolve(entry.getName()).normalize();
+                if (!file.getParent().equals(target)) throw new IOException("Unexpected entry in backup archive: " + entry.getName());
+                try (OutputStream out = Files.newOutputStream(file)) {
+                    zip.transferTo(out);
+                }
+            }
+        }
+        return target;
+    }
+    
+    // Loads a backup into fresh, empty services; the caller decides when to swap them in.
+    // Checksums are verified before anything is loaded. Courses and students load in
+    // parallel, enrollments and prerequisites once both are in place. Older backups
+    // without a prerequisites file restore without prerequisites.
+    public RestoreReport restoreBackup(Path backup, CourseService courses, StudentService students,
+                                       Progress progress) throws IOException {
+        if (courses.getCourseCount() > 0 || students.getStudentCount() > 0) {
+            throw new IllegalArgumentException("Restore target services must be empty");
+        }
+        if (!isArchive(backup)) return restoreDirectory(backup, backup, courses, students, progress);
+        Path unpacked = unpackArchive(backup);
+        try {
+            return restoreDirectory(backup, unpacked, courses, students, progress);
+        } finally {
+            deleteBackup(unpacked, () -> {});
+        }
+    }
+    
+    private RestoreReport restoreDirectory(Path backup, Path backupDir, CourseService courses, StudentService students,
+                                           Progress progress) throws IOException {
+        long start = System.nanoTime();
+        boolean verified = verifyChecksums(backupDir);
+        long loadStart = System.nanoTime();
+        
+        CountingProgress counter = new CountingProgress(progress);
+        ImportExportService loader = new ImportExportService(students, courses);
+        CompletableFuture<Void> courseLoad = CompletableFuture.runAsync(() -> {
+            try {
+                loader.restoreCoursesFromCSV(backupDir.resolve(COURSES_FILE), counter);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        loader.restoreStudentsFromCSV(backupDir.resolve(STUDENTS_FILE), counter);
+        try {
+            courseLoad.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof UncheckedIOException io) throw io.getCause();
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            throw e;
+        }
+        Path prerequisites = backupDir.resolve(PREREQUISITES_FILE);
+        if (Files.exists(prerequisites)) loader.restorePrerequisitesFromCSV(prerequisites, counter);
+        Path enrollments = backupDir.resolve(ENROLLMENTS_FILE);
+        if (Files.exists(enrollments)) loader.restoreEnrollmentsFromCSV(enrollments, counter);
+        
+        long end = System.nanoTime();
+        return new RestoreReport(backup, verified, counter.rows, counter.bytes,
+            Duration.ofNanos(loadStart - start), Duration.ofNanos(end - loadStart));
+    }
+    
+    // False when the backup predates checksums; any mismatch or missing file is an error.
+    private static boolean verifyChecksums(Path backupDir) throws IOException {
+        Path checksumFile = backupDir.resolve(CHECKSUM_FILE);
+        if (!Files.exists(checksumFile)) {
+            if (!Files.exists(backupDir.resolve(STUDENTS_FILE)) || !Files.exists(backupDir.resolve(COURSES_FILE))) {
+                throw new NoSuchFileException("Not a backup directory: " + backupDir);
+            }
+            return false;
+        }
+        Map<String, String> expected = new LinkedHashMap<>();
+        for (String line : Files.readAllLines(checksumFile)) {
+            int split = line.indexOf("  ");
+            if (split < 0) throw new IOException("Malformed checksum line: " + line);
+            expected.put(line.substring(split + 2).trim(), line.substring(0, split).trim());
+        }
+        try (Stream<Map.Entry<String, String>> entries = expected.entrySet().parallelStream()) {
+            entries.forEach(entry -> {
+                try {
+                    if (!sha256(backupDir.resolve(entry.getKey())).equalsIgnoreCase(entry.getValue())) {
+                        throw new IOException("Checksum mismatch: " + entry.getKey());
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        return true;
+    }
+    
+    // Parallel loaders report through this; it serializes calls and keeps the totals.
+    private static final class CountingProgress implements Progress {
+        private final Progress target;
+        private long rows;
+        private long bytes;
+        
+        CountingProgress(Progress target) {
+            this.target = target;
+        }
+        
+        @Override
+        public synchronized void expect(long rows, long bytes) {
+            target.expect(rows, bytes);
+        }
+        
+        @Override
+        public synchronized void advance(long rows, long bytes) {
+            this.rows += rows;
+            this.bytes += bytes;
+            target.advance(rows, bytes);
+        }
     }
     
     public long calculateBackupSize(Path directory) throws IOException {
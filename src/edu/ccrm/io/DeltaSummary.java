@@ -0,0 +1,9 @@
+package edu.ccrm.io;
+
+// Result of a delta export; watermark is where the next export should resume.
+public record DeltaSummary(int students, int courses, long watermark) {
+    @Override
+    public String toString() {
+        return String.format("%d students, %d courses changed; next watermark %d", students, courses, watermark);
+    }
+}
@@ -0,0 +1,289 @@
+package edu.ccrm.io;
+
+import edu.ccrm.config.AppConfig;
+
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Continuously ingests CSV files that upstream systems drop into a directory. Files are
+ * routed by suffix (*.students.csv, *.courses.csv, *.grades.csv) and tailed: each file
+ * has a committed byte offset, only complete lines past it are read, and the offset is
+ * committed after every applied batch. A file that shrinks or is replaced under the
+ * same name (log-style rotation) starts again from the top. A crash between applying a
+ * batch and committing it replays that batch, which the student and grade feeds absorb;
+ * replayed course rows are rejected as duplicates. Rows that fail are appended to
+ * "<file>.rejects.csv" with their line number.
+ */
+public class DropFolderIngestor implements AutoCloseable {
+    private static final String OFFSETS_FILE = ".ingest-offsets";
+    private static final long SETTLE_MILLIS = 100;
+    
+    public enum Feed {
+        STUDENTS(".students.csv"), COURSES(".courses.csv"), GRADES(".grades.csv");
+        
+        private final String suffix;
+        
+        Feed(String suffix) { this.suffix = suffix; }
+        
+        public String getSuffix() { return suffix; }
+        
+        static Optional<Feed> of(Path file) {
+            String name = file.getFileName().toString();
+            return Arrays.stream(values()).filter(feed -> name.endsWith(feed.suffix)).findFirst();
+        }
+    }
+    
+    // Where reading resumes: the file it belongs to, the byte after the last applied line and that line's number.
+    private record Cursor(String fileKey, long offset, long line) {
+        @Override
+        public String toString() { return fileKey + "|" + offset + "|" + line; }
+        
+        static Cursor parse(String value) {
+            int last = value.lastIndexOf('|');
+            int middle = value.lastIndexOf('|', last - 1);
+            return new Cursor(value.substring(0, middle), Long.parseLong(value.substring(middle + 1, last)),
+                Long.parseLong(value.substring(last + 1)));
+        }
+    }
+    
+    private final Supplier<ImportExportService> service;
+    private final Path directory;
+    private final Path offsetsFile;
+    private final Map<String, Cursor> cursors = new TreeMap<>();
+    private final WatchService watchService;
+    private final Thread thread;
+    private final LongAdder rows = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private volatile String lastStatus = "Waiting for files";
+    
+    // The supplier is read for every batch, so a restored service graph is picked up.
+    public DropFolderIngestor(Supplier<ImportExportService> service, Path directory) throws IOException {
+        this.service = service;
+        this.directory = directory.toAbsolutePath().normalize();
+        this.offsetsFile = this.directory.resolve(OFFSETS_FILE);
+        loadOffsets();
+        this.watchService = this.directory.getFileSystem().newWatchService();
+        this.directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+            StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+        this.thread = new Thread(this::watch, "ccrm-drop-folder");
+        thread.setDaemon(true);
+        thread.start();
+    }
+    
+    public Path getDirectory() { return directory; }
+    public long getRowCount() { return rows.sum(); }
+    public long getRejectedCount() { return rejected.sum(); }
+    public String getLastStatus() { return lastStatus; }
+    
+    private void watch() {
+        try {
+            // Catch up on whatever arrived while we were not running.
+            Set<Path> changed = new TreeSet<>(listFeedFiles());
+            while (true) {
+                for (Path file : changed) ingest(file);
+                changed.clear();
+                collect(watchService.take(), changed);
+                WatchKey more;
+                while ((more = watchService.poll(SETTLE_MILLIS, TimeUnit.MILLISECONDS)) != null) {
+                    collect(more, changed);
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // Closed.
+        }
+    }
+    
+    private void collect(WatchKey key, Set<Path> changed) {
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                changed.addAll(listFeedFiles());
+            } else if (event.context() instanceof Path name && Feed.of(name).isPresent()) {
+                changed.add(directory.resolve(name));
+            }
+        }
+        key.reset();
+    }
+    
+    private List<Path> listFeedFiles() {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> Feed.of(file).isPresent()).sorted().toList();
+        } catch (IOException e) {
+            lastStatus = now() + ": unable to list " + directory + ": " + e.getMessage();
+            return List.of();
+        }
+    }
+    
+    // A failed batch is not committed, so the next event for the file retries it.
+    private void ingest(Path file) {
+        String name = file.getFileName().toString();
+        try {
+            if (!Files.isRegularFile(file)) {
+                if (cursors.remove(name) != null) saveOffsets();
+                return;
+            }
+            long applied = tail(file, Feed.of(file).orElseThrow());
+            if (applied > 0) lastStatus = now() + ": " + applied + " row(s) from " + name;
+        } catch (IOException | UncheckedIOException e) {
+            lastStatus = now() + ": " + name + " will be retried: " + e.getMessage();
+        } catch (RuntimeException e) {
+            lastStatus = now() + ": " + name + " failed and will be retried: " + e;
+        }
+    }
+    
+    private long tail(Path file, Feed feed) throws IOException {
+        String name = file.getFileName().toString();
+        BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        String fileKey = String.valueOf(attributes.fileKey() != null ? attributes.fileKey() : attributes.creationTime());
+        Cursor cursor = cursors.get(name);
+        if (cursor == null || !cursor.fileKey().equals(fileKey) || attributes.size() < cursor.offset()) {
+            cursor = new Cursor(fileKey, 0, 0);
+        }
+        
+        AppConfig config = AppConfig.getInstance();
+        int batchSize = config.getBatchSize();
+        List<String> batch = new ArrayList<>(batchSize);
+        long[] batchLines = new long[batchSize];
+        long applied = 0;
+        long line = cursor.line();
+        long lineEnd = cursor.offset();
+        ByteArrayOutputStream partial = new ByteArrayOutputStream();
+        
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            channel.position(cursor.offset());
+            ByteBuffer buffer = ByteBuffer.allocate(config.getIoBufferSize());
+            long chunkStart = cursor.offset();
+            int read;
+            while ((read = channel.read(buffer)) > 0) {
+                byte[] bytes = buffer.array();
+                int start = 0;
+                for (int i = 0; i < read; i++) {
+                    if (bytes[i] != '\n') continue;
+                    partial.write(bytes, start, i - start);
+                    start = i + 1;
+                    lineEnd = chunkStart + start;
+                    line++;
+                    String row = partial.toString(StandardCharsets.UTF_8).stripTrailing();
+                    partial.reset();
+                    // Line 1 is the header; blank lines carry nothing.
+                    if (line == 1 || row.isEmpty()) continue;
+                    batchLines[batch.size()] = line;
+                    batch.add(row);
+                    if (batch.size() == batchSize) {
+                        applied += apply(file, feed, batch, batchLines);
+                        cursor = commit(name, new Cursor(fileKey, lineEnd, line));
+                    }
+                }
+                // An unterminated last line is still being written; it is read again next time.
+                partial.write(bytes, start, read - start);
+                chunkStart += read;
+                buffer.clear();
+            }
+        }
+        if (!batch.isEmpty()) applied += apply(file, feed, batch, batchLines);
+        if (lineEnd != cursor.offset() || !cursor.equals(cursors.get(name))) {
+            commit(name, new Cursor(fileKey, lineEnd, line));
+        }
+        return applied;
+    }
+    
+    private long apply(Path file, Feed feed, List<String> batch, long[] batchLines) throws IOException {
+        ImportExportService target = service.get();
+        SortedMap<Integer, String> rejects = switch (feed) {
+            case STUDENTS -> target.upsertStudentRows(batch);
+            case COURSES -> target.importCourseRows(batch);
+            case GRADES -> target.recordGradeRows(batch);
+        };
+        if (!rejects.isEmpty()) writeRejects(file, rejects, batch, batchLines);
+        rows.add(batch.size());
+        rejected.add(rejects.size());
+        long applied = batch.size() - rejects.size();
+        batch.clear();
+        return applied;
+    }
+    
+    private static void writeRejects(Path file, SortedMap<Integer, String> rejects, List<String> batch,
+                                     long[] batchLines) throws IOException {
+        Path report = file.resolveSibling(file.getFileName() + ".rejects.csv");
+        boolean created = !Files.exists(report);
+        try (BufferedWriter writer = Files.newBufferedWriter(report, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            if (created) {
+                writer.write("line,reason,row");
+                writer.newLine();
+            }
+            for (Map.Entry<Integer, String> reject : rejects.entrySet()) {
+                writer.write(batchLines[reject.getKey()] + "," + reject.getValue().replace(',', ';') + ","
+                    + batch.get(reject.getKey()));
+                writer.newLine();
+            }
+        }
+    }
+    
+    private Cursor commit(String name, Cursor cursor) throws IOException {
+        cursors.put(name, cursor);
+        saveOffsets();
+        return cursor;
+    }
+    
+    private void loadOffsets() throws IOException {
+        if (!Files.exists(offsetsFile)) return;
+        Properties offsets = new Properties();
+        try (Reader reader = Files.newBufferedReader(offsetsFile, StandardCharsets.UTF_8)) {
+            offsets.load(reader);
+        }
+        for (String name : offsets.stringPropertyNames()) {
+            try {
+                cursors.put(name, Cursor.parse(offsets.getProperty(name)));
+            } catch (RuntimeException e) {
+                // Unreadable entry: that file is read again from the top.
+            }
+        }
+    }
+    
+    // Written aside and moved into place, so a crash leaves either the old or the new offsets.
+    private void saveOffsets() throws IOException {
+        Properties offsets = new Properties();
+        cursors.forEach((name, cursor) -> offsets.setProperty(name, cursor.toString()));
+        Path temp = offsetsFile.resolveSibling(OFFSETS_FILE + ".tmp");
+        try (Writer writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+            offsets.store(writer, "Committed drop-folder offsets: fileKey|offset|line");
+        }
+        Files.move(temp, offsetsFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+    
+    private static LocalDateTime now() {
+        return LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+    }
+    
+    @Override
+    public void close() {
+        try {
+            watchService.close();
+        } catch (IOException e) {
+            // Nothing left to release.
+        }
+        thread.interrupt();
+        try {
+            thread.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package edu.ccrm.io;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+// Outcome of a bulk grade import; rejectReport is null when every row was applied.
+public record GradeImportSummary(long rows, long applied, long rejected, Path rejectReport, Duration elapsed) {
+    @Override
+    public String toString() {
+        String summary = String.format("%d of %d grades applied in %d ms", applied, rows, elapsed.toMillis());
+        return rejectReport == null ? summary : summary + String.format(", %d rejected (see %s)", rejected, rejectReport);
+    }
+}
@@ -1,104 +1,742 @@
 package edu.ccrm.io;
 
+import edu.ccrm.config.AppConfig;
 import edu.ccrm.domain.*;
 import edu.ccrm.service.StudentService;
+import edu.ccrm.service.ChangeSet;
 import edu.ccrm.service.CourseService;
+import edu.ccrm.service.GradeEntry;
+import edu.ccrm.service.Snapshot;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.Optional;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
 import java.util.stream.Stream;
 
 public class ImportExportService {
     private final StudentService studentService;
     private final CourseService courseService;
+    private static final int FINGERPRINT_MAGIC = 0x43434650; // "CCFP"
+    // Hash of the CSV row each student was last imported from, keyed by the student's own ID
+    // string, with the student's updatedAt at that point. Full-file imports save the map to
+    // a sidecar in the data directory; entries read back from it only count while the student
+    // is unchanged since, which also rules them out after a restore.
+    private record Fingerprint(long hash, long updatedAt, boolean loaded) {}
+    private final Map<String, Fingerprint> studentFingerprints = new ConcurrentHashMap<>();
+    private boolean fingerprintsLoaded;
+    private volatile boolean fingerprintsDirty;
+    
+    private enum UpsertOutcome { ADDED, UPDATED, UNCHANGED }
     
     public ImportExportService(StudentService studentService, CourseService courseService) {
         this.studentService = studentService;
         this.courseService = courseService;
+        studentService.addChangeListener(this::onStudentChange);
+    }
+    
+    // Local edits make the stored fingerprint stale, so the next upsert re-applies the feed row.
+    private void onStudentChange(String entityType, String entityId, ChangeType type, String detail) {
+        if (type == ChangeType.UPDATED || type == ChangeType.ACTIVATED || type == ChangeType.DEACTIVATED) {
+            studentFingerprints.remove(entityId);
+        }
     }
     
+    public StudentService getStudentService() { return studentService; }
+    public CourseService getCourseService() { return courseService; }
+    
     public void importStudentsFromCSV(Path filePath) throws IOException {
-        assert Files.exists(filePath) : "File must exist: " + filePath;
+        importStudentsFromCSV(filePath, Progress.NONE);
+    }
+    
+    public void importStudentsFromCSV(Path filePath, Progress progress) throws IOException {
+        Map<String, Fingerprint> fingerprints = fingerprints();
+        try {
+            importCSV(filePath, progress, line -> {
+                Student student = parseStudentFromCSV(line);
+                studentService.addStudent(student);
+                remember(fingerprints, student.getId(), fingerprint(line), student.getUpdatedAtMillis());
+            });
+        } finally {
+            saveFingerprints();
+        }
+    }
+    
+    // Merges a full feed into existing data: new IDs are added, unchanged rows are skipped
+    // on their fingerprint alone, and changed rows only have differing fields applied.
+    public UpsertSummary upsertStudentsFromCSV(Path filePath, Progress progress) throws IOException {
+        long[] counts = new long[UpsertOutcome.values().length];
+        try {
+            importCSV(filePath, progress, line -> counts[upsertStudent(line).ordinal()]++);
+        } finally {
+            saveFingerprints();
+        }
+        return new UpsertSummary(counts[UpsertOutcome.ADDED.ordinal()],
+            counts[UpsertOutcome.UPDATED.ordinal()], counts[UpsertOutcome.UNCHANGED.ordinal()]);
+    }
+    
+    private UpsertOutcome upsertStudent(String line) {
+        int comma = line.indexOf(',');
+        if (comma < 0) throw new IllegalArgumentException("Invalid CSV line: " + line);
+        Map<String, Fingerprint> fingerprints = fingerprints();
+        String id = line.substring(0, comma).trim();
+        long fingerprint = fingerprint(line);
+        Fingerprint previous = fingerprints.get(id);
+        if (previous != null && previous.hash() == fingerprint) {
+            if (!previous.loaded()) return UpsertOutcome.UNCHANGED;
+            long updatedAt = studentService.getStudent(id).map(Student::getUpdatedAtMillis).orElse(-1L);
+            if (updatedAt == previous.updatedAt()) {
+                fingerprints.put(id, new Fingerprint(fingerprint, updatedAt, false));
+                return UpsertOutcome.UNCHANGED;
+            }
+        }
         
-        try (Stream<String> lines = Files.lines(filePath)) {
-            lines.skip(1)
-                .map(this::parseStudentFromCSV)
-                .forEach(studentService::addStudent);
+        Student incoming = parseStudentFromCSV(line);
+        Optional<Student> existing = studentService.getStudent(incoming.getId());
+        if (existing.isEmpty()) {
+            studentService.addStudent(incoming);
+            remember(fingerprints, incoming.getId(), fingerprint, incoming.getUpdatedAtMillis());
+            return UpsertOutcome.ADDED;
+        }
+        
+        if (!existing.get().getRegNo().equals(incoming.getRegNo())) {
+            throw new IllegalArgumentException("Registration number changed for student " + incoming.getId());
+        }
+        // Applied on the owning shard, which checks the row against the service's rules.
+        boolean changed = studentService.updateStudent(incoming.getId(),
+            incoming.getFullName(), incoming.getEmail(), incoming.isActive());
+        long updatedAt = changed
+            ? studentService.getStudent(incoming.getId()).map(Student::getUpdatedAtMillis).orElse(-1L)
+            : existing.get().getUpdatedAtMillis();
+        remember(fingerprints, incoming.getId(), fingerprint, updatedAt);
+        return changed ? UpsertOutcome.UPDATED : UpsertOutcome.UNCHANGED;
+    }
+    
+    private void remember(Map<String, Fingerprint> fingerprints, String id, long hash, long updatedAt) {
+        fingerprints.put(id, new Fingerprint(hash, updatedAt, false));
+        fingerprintsDirty = true;
+    }
+    
+    // The sidecar is read on first use, so services that never upsert (a restore) skip it.
+    // An unreadable sidecar only costs one full comparison pass.
+    private synchronized Map<String, Fingerprint> fingerprints() {
+        if (fingerprintsLoaded) return studentFingerprints;
+        fingerprintsLoaded = true;
+        Path file = AppConfig.getInstance().getImportFingerprintFile();
+        if (!Files.exists(file)) return studentFingerprints;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != FINGERPRINT_MAGIC) throw new IOException("not a fingerprint file");
+            while (in.readBoolean()) {
+                String id = in.readUTF();
+                studentFingerprints.putIfAbsent(id, new Fingerprint(in.readLong(), in.readLong(), true));
+            }
+        } catch (IOException e) {
+            System.err.println("Ignoring import fingerprints in " + file + ": " + e.getMessage());
+        }
+        return studentFingerprints;
+    }
+    
+    // Written aside and moved into place, so a crash leaves either the old or the new file.
+    private synchronized void saveFingerprints() {
+        if (!fingerprintsDirty) return;
+        fingerprintsDirty = false;
+        Path file = AppConfig.getInstance().getImportFingerprintFile();
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                out.writeInt(FINGERPRINT_MAGIC);
+                for (Map.Entry<String, Fingerprint> entry : studentFingerprints.entrySet()) {
+                    out.writeBoolean(true);
+                    out.writeUTF(entry.getKey());
+                    out.writeLong(entry.getValue().hash());
+                    out.writeLong(entry.getValue().updatedAt());
+                }
+                out.writeBoolean(false);
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            fingerprintsDirty = true;
+            System.err.println("Import fingerprints not saved: " + e.getMessage());
+        }
+    }
+    
+    // 64-bit FNV-1a over the raw row.
+    private static long fingerprint(String line) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < line.length(); i++) {
+            hash ^= line.charAt(i);
+            hash *= 0x100000001b3L;
         }
+        return hash;
     }
     
     public void importCoursesFromCSV(Path filePath) throws IOException {
+        importCoursesFromCSV(filePath, Progress.NONE);
+    }
+    
+    public void importCoursesFromCSV(Path filePath, Progress progress) throws IOException {
+        importCSV(filePath, progress, line -> courseService.addCourse(parseCourseFromCSV(line)));
+    }
+    
+    // Byte counts are per character, which is exact for the ASCII files we exchange.
+    private void importCSV(Path filePath, Progress progress, Consumer<String> importer) throws IOException {
         assert Files.exists(filePath) : "File must exist: " + filePath;
+        progress.expect(0, Files.size(filePath));
         
         try (Stream<String> lines = Files.lines(filePath)) {
-            lines.skip(1)
-                .map(this::parseCourseFromCSV)
-                .forEach(courseService::addCourse);
+            Iterator<String> it = lines.iterator();
+            if (it.hasNext()) progress.advance(0, it.next().length() + 1);
+            while (it.hasNext()) {
+                String line = it.next();
+                importer.accept(line);
+                progress.advance(1, line.length() + 1);
+            }
         }
     }
     
-    public void exportStudentsToCSV(Path filePath) throws IOException {
-        List<String> lines = studentService.getAllStudents().stream()
-            .map(this::convertStudentToCSV)
-            .collect(Collectors.toList());
+    /**
+     * End-of-term marks as "studentId,courseId,score" rows, the same layout as the
+     * enrollment export. The file is streamed and each row parsed; well-formed rows are
+     * then validated and applied in one bulk call that groups them by student. Rows that
+     * fail any stage are listed with their line number and reason in a
+     * "<file>.rejects.csv" report rather than stopping the import.
+     */
+    public GradeImportSummary importGradesFromCSV(Path filePath, Progress progress) throws IOException {
+        long started = System.nanoTime();
+        List<GradeEntry> entries = new ArrayList<>();
+        long[] entryLines = new long[1024];
+        SortedMap<Long, String> rejects = new TreeMap<>();
+        progress.expect(0, Files.size(filePath));
+        
+        long lineNumber = 0;
+        try (BufferedReader reader = newReader(filePath)) {
+            String line = reader.readLine();
+            if (line != null) {
+                lineNumber++;
+                progress.advance(0, line.length() + 1);
+            }
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                progress.advance(0, line.length() + 1);
+                if (line.isBlank()) continue;
+                try {
+                    GradeEntry entry = parseGradeFromCSV(line);
+                    if (entries.size() == entryLines.length) entryLines = Arrays.copyOf(entryLines, entryLines.length * 2);
+                    entryLines[entries.size()] = lineNumber;
+                    entries.add(entry);
+                } catch (IllegalArgumentException e) {
+                    rejects.put(lineNumber, e.getMessage() + "," + line);
+                }
+            }
+        }
+        
+        long rows = entries.size() + rejects.size();
+        long[] lines = entryLines;
+        studentService.recordGrades(entries).forEach((i, reason) -> {
+            GradeEntry entry = entries.get(i);
+            rejects.put(lines[i], reason + "," + entry.studentId() + "," + entry.courseId() + "," + entry.score());
+        });
+        progress.advance(rows, 0);
         
-        lines.add(0, "id,regNo,fullName,email,active");
-        Files.write(filePath, lines, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+        Path report = null;
+        if (!rejects.isEmpty()) {
+            report = filePath.resolveSibling(filePath.getFileName() + ".rejects.csv");
+            writeCSV(report, "line,reason,studentId,courseId,score",
+                rejects.entrySet().stream().map(reject -> reject.getKey() + "," + reject.getValue()), Progress.NONE);
+        }
+        return new GradeImportSummary(rows, rows - rejects.size(), rejects.size(), report,
+            Duration.ofNanos(System.nanoTime() - started));
     }
     
-    public void exportCoursesToCSV(Path filePath) throws IOException {
-        List<String> lines = courseService.getAllCourses().stream()
-            .map(this::convertCourseToCSV)
-            .collect(Collectors.toList());
+    private static GradeEntry parseGradeFromCSV(String csvLine) {
+        String[] parts = csvLine.split(",", -1);
+        if (parts.length != 3) throw new IllegalArgumentException("Expected 3 fields");
+        String studentId = parts[0].trim();
+        String courseId = parts[1].trim();
+        double score;
+        try {
+            score = Double.parseDouble(parts[2].trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Score is not a number");
+        }
+        return new GradeEntry(studentId, courseId, score);
+    }
+    
+    // Row batches from DropFolderIngestor. Each returns the reject reason of every row that
+    // was not applied, keyed by its index in the batch; the other rows are applied.
+    SortedMap<Integer, String> upsertStudentRows(List<String> rows) {
+        SortedMap<Integer, String> rejects = new TreeMap<>();
+        for (int i = 0; i < rows.size(); i++) {
+            try {
+                upsertStudent(rows.get(i));
+            } catch (IllegalArgumentException e) {
+                rejects.put(i, e.getMessage());
+            }
+        }
+        return rejects;
+    }
+    
+    SortedMap<Integer, String> importCourseRows(List<String> rows) {
+        SortedMap<Integer, String> rejects = new TreeMap<>();
+        for (int i = 0; i < rows.size(); i++) {
+            try {
+                courseService.addCourse(parseCourseFromCSV(rows.get(i)));
+            } catch (IllegalArgumentException e) {
+                rejects.put(i, e.getMessage());
+            }
+        }
+        return rejects;
+    }
+    
+    SortedMap<Integer, String> recordGradeRows(List<String> rows) {
+        SortedMap<Integer, String> rejects = new TreeMap<>();
+        List<GradeEntry> entries = new ArrayList<>(rows.size());
+        int[] rowOf = new int[rows.size()];
+        for (int i = 0; i < rows.size(); i++) {
+            try {
+                GradeEntry entry = parseGradeFromCSV(rows.get(i));
+                rowOf[entries.size()] = i;
+                entries.add(entry);
+            } catch (IllegalArgumentException e) {
+                rejects.put(i, e.getMessage());
+            }
+        }
+        studentService.recordGrades(entries).forEach((i, reason) -> rejects.put(rowOf[i], reason));
+        return rejects;
+    }
+    
+    // Restore path: rows are independent, so they are loaded by parallel workers and
+    // progress must accept concurrent calls. Courses must be loaded before enrollments.
+    public void restoreStudentsFromCSV(Path filePath, Progress progress) throws IOException {
+        restoreCSV(filePath, progress, line -> studentService.addStudent(parseStudentFromCSV(line)));
+    }
+    
+    public void restoreCoursesFromCSV(Path filePath, Progress progress) throws IOException {
+        restoreCSV(filePath, progress, line -> courseService.addCourse(parseCourseFromCSV(line)));
+    }
+    
+    public void restoreEnrollmentsFromCSV(Path filePath, Progress progress) throws IOException {
+        restoreCSV(filePath, progress, line -> {
+            String[] parts = line.split(",", -1);
+            if (parts.length < 3) throw new IllegalArgumentException("Invalid CSV line: " + line);
+            String score = parts[2].trim();
+            studentService.restoreEnrollment(parts[0].trim(), parts[1].trim(),
+                score.isEmpty() ? null : Double.valueOf(score));
+        });
+    }
+    
+    // Every course must be loaded first; the graph itself rejects cycles.
+    public void restorePrerequisitesFromCSV(Path filePath, Progress progress) throws IOException {
+        restoreCSV(filePath, progress, line -> {
+            String[] parts = line.split(",", -1);
+            if (parts.length < 2) throw new IllegalArgumentException("Invalid CSV line: " + line);
+            courseService.addPrerequisite(parts[0].trim(), parts[1].trim());
+        });
+    }
+    
+    private void restoreCSV(Path filePath, Progress progress, Consumer<String> importer) throws IOException {
+        progress.expect(0, Files.size(filePath));
+        String header;
+        try (BufferedReader reader = Files.newBufferedReader(filePath)) {
+            header = reader.readLine();
+        }
+        if (header == null) return;
+        progress.advance(0, header.length() + 1);
         
-        lines.add(0, "code,title,credits,instructorId,semester,department,active");
-        Files.write(filePath, lines, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+        try (Stream<String> lines = Files.lines(filePath)) {
+            lines.parallel()
+                .filter(line -> !line.equals(header))
+                .forEach(line -> {
+                    importer.accept(line);
+                    progress.advance(1, line.length() + 1);
+                });
+        }
+    }
+    
+    public void exportStudentsToCSV(Path filePath) throws IOException {
+        exportStudentsToCSV(studentService.snapshot(), filePath);
+    }
+    
+    public void exportStudentsToCSV(Snapshot<Student> students, Path filePath) throws IOException {
+        exportStudentsToCSV(students, filePath, Progress.NONE);
+    }
+    
+    public void exportStudentsToCSV(Snapshot<Student> students, Path filePath, Progress progress) throws IOException {
+        progress.expect(students.size(), 0);
+        writeCSV(filePath, "id,regNo,fullName,email,active,createdAt,updatedAt",
+            students.stream().map(this::convertStudentToCSV), progress);
+    }
+    
+    // One row per enrollment; the score column is empty until a grade is recorded.
+    public void exportEnrollmentsToCSV(Snapshot<Student> students, Path filePath, Progress progress) throws IOException {
+        progress.expect(students.stream().mapToInt(student -> student.getEnrolledCourses().size()).sum(), 0);
+        writeCSV(filePath, "studentId,courseId,score",
+            students.stream().flatMap(student -> student.getEnrolledCourses().stream().map(courseId -> {
+                Double score = student.getGrade(courseId);
+                return student.getId() + "," + courseId + "," + (score != null ? score : "");
+            })), progress);
+    }
+    
+    // One row per direct prerequisite edge of the courses in the snapshot.
+    public void exportPrerequisitesToCSV(Snapshot<Course> courses, Path filePath, Progress progress) throws IOException {
+        progress.expect(courses.stream().mapToInt(course -> courseService.getPrerequisites(course.getCode()).size()).sum(), 0);
+        writeCSV(filePath, "courseId,prerequisiteId",
+            courses.stream().flatMap(course -> courseService.getPrerequisites(course.getCode()).stream()
+                .map(prerequisite -> course.getCode() + "," + prerequisite)), progress);
+    }
+    
+    public void exportCoursesToCSV(Path filePath) throws IOException {
+        exportCoursesToCSV(courseService.snapshot(), filePath);
+    }
+    
+    public void exportCoursesToCSV(Snapshot<Course> courses, Path filePath) throws IOException {
+        exportCoursesToCSV(courses, filePath, Progress.NONE);
+    }
+    
+    public void exportCoursesToCSV(Snapshot<Course> courses, Path filePath, Progress progress) throws IOException {
+        progress.expect(courses.size(), 0);
+        writeCSV(filePath, "code,title,credits,instructorId,semester,department,active,academicYear,createdAt,updatedAt",
+            courses.stream().map(this::convertCourseToCSV), progress);
+    }
+    
+    // Writes only records changed after the watermark. Both services stamp changes from the
+    // wall clock, so resuming at the lower of their watermarks never skips a change.
+    public DeltaSummary exportChangesToCSV(long watermark, Path studentsFile, Path coursesFile, Progress progress)
+            throws IOException {
+        ChangeSet<Student> students = studentService.getChangesSince(watermark);
+        ChangeSet<Course> courses = courseService.getChangesSince(watermark);
+        progress.expect(students.records().size() + courses.records().size(), 0);
+        writeCSV(studentsFile, "id,regNo,fullName,email,active,createdAt,updatedAt",
+            students.records().stream().map(this::convertStudentToCSV), progress);
+        writeCSV(coursesFile, "code,title,credits,instructorId,semester,department,active,academicYear,createdAt,updatedAt",
+            courses.records().stream().map(this::convertCourseToCSV), progress);
+        return new DeltaSummary(students.records().size(), courses.records().size(),
+            Math.min(students.watermark(), courses.watermark()));
+    }
+    
+    private static BufferedReader newReader(Path filePath) throws IOException {
+        return new BufferedReader(new InputStreamReader(Files.newInputStream(filePath), StandardCharsets.UTF_8),
+            AppConfig.getInstance().getIoBufferSize());
     }
     
+    private static BufferedWriter newWriter(Path filePath) throws IOException {
+        return new BufferedWriter(new OutputStreamWriter(Files.newOutputStream(filePath,
+            StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING), StandardCharsets.UTF_8),
+            AppConfig.getInstance().getIoBufferSize());
+    }
+    
+    // The JSON reader and writer buffer for themselves, so they get the bare streams.
+    private static JsonReader newJsonReader(Path filePath) throws IOException {
+        return new JsonReader(new InputStreamReader(Files.newInputStream(filePath), StandardCharsets.UTF_8),
+            AppConfig.getInstance().getIoBufferSize());
+    }
+    
+    private static JsonWriter newJsonWriter(Path filePath) throws IOException {
+        return new JsonWriter(new OutputStreamWriter(Files.newOutputStream(filePath,
+            StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING), StandardCharsets.UTF_8),
+            AppConfig.getInstance().getIoBufferSize());
+    }
+    
+    // JSON lines: one self-contained object per line. Students carry their enrollments and
+    // grades inline and courses their prerequisites; text may contain any character, and
+    // ids, flags and timestamps are kept exactly.
+    public void exportStudentsToJson(Snapshot<Student> students, Path filePath, Progress progress) throws IOException {
+        progress.expect(students.size(), 0);
+        try (JsonWriter json = newJsonWriter(filePath)) {
+            Iterator<Student> it = students.stream().iterator();
+            while (it.hasNext()) {
+                Student student = it.next();
+                json.beginObject()
+                    .name("id").value(student.getId())
+                    .name("regNo").value(student.getRegNo())
+                    .name("fullName").value(student.getFullName())
+                    .name("email").value(student.getEmail())
+                    .name("active").value(student.isActive())
+                    .name("createdAt").value(student.getCreatedAtMillis())
+                    .name("updatedAt").value(student.getUpdatedAtMillis())
+                    .name("enrollments").beginArray();
+                for (String courseId : student.getEnrolledCourses()) {
+                    json.beginObject().name("course").value(courseId);
+                    Double score = student.getGrade(courseId);
+                    if (score != null) json.name("score").value(score.doubleValue());
+                    json.endObject();
+                }
+                json.endArray().endObject().endRecord();
+                progress.advance(1, 0);
+            }
+        }
+    }
+    
+    public void exportCoursesToJson(Snapshot<Course> courses, Path filePath, Progress progress) throws IOException {
+        progress.expect(courses.size(), 0);
+        try (JsonWriter json = newJsonWriter(filePath)) {
+            Iterator<Course> it = courses.stream().iterator();
+            while (it.hasNext()) {
+                Course course = it.next();
+                json.beginObject()
+                    .name("code").value(course.getCode())
+                    .name("title").value(course.getTitle())
+                    .name("credits").value(course.getCredits())
+                    .name("instructorId").value(course.getInstructorId())
+                    .name("semester").value(course.getSemester() != null ? course.getSemester().name() : null)
+                    .name("academicYear").value(course.getAcademicYear())
+                    .name("department").value(course.getDepartment())
+                    .name("active").value(course.isActive())
+                    .name("createdAt").value(course.getCreatedAtMillis())
+                    .name("updatedAt").value(course.getUpdatedAtMillis())
+                    .name("prerequisites").beginArray();
+                for (String prerequisite : courseService.getPrerequisites(course.getCode())) json.value(prerequisite);
+                json.endArray().endObject().endRecord();
+                progress.advance(1, 0);
+            }
+        }
+    }
+    
+    // Each student arrives with its enrollments in one call, so they are applied as
+    // recorded, as in a restore. Unknown members are skipped.
+    public void importStudentsFromJson(Path filePath, Progress progress) throws IOException {
+        progress.expect(0, Files.size(filePath));
+        List<String> courseIds = new ArrayList<>();
+        double[] scores = new double[16];
+        try (JsonReader json = newJsonReader(filePath)) {
+            long position = 0;
+            while (json.hasNextRecord()) {
+                long line = json.getLine();
+                Student.Builder builder = new Student.Builder();
+                courseIds.clear();
+                json.beginObject();
+                while (json.hasNext()) {
+                    switch (json.nextName()) {
+                        case "id" -> builder.id(json.nextString());
+                        case "regNo" -> builder.regNo(json.nextString());
+                        case "fullName" -> builder.fullName(json.nextString());
+                        case "email" -> builder.email(json.nextString());
+                        case "active" -> builder.active(json.nextBoolean());
+                        case "createdAt" -> builder.createdAt(json.nextLong());
+                        case "updatedAt" -> builder.updatedAt(json.nextLong());
+                        case "enrollments" -> {
+                            json.beginArray();
+                            while (json.hasNext()) {
+                                if (courseIds.size() == scores.length) scores = Arrays.copyOf(scores, scores.length * 2);
+                                scores[courseIds.size()] = Double.NaN;
+                                String courseId = null;
+                                json.beginObject();
+                                while (json.hasNext()) {
+                                    switch (json.nextName()) {
+                                        case "course" -> courseId = json.nextString();
+                                        case "score" -> scores[courseIds.size()] = json.nextNull() ? Double.NaN : json.nextDouble();
+                                        default -> json.skipValue();
+                                    }
+                                }
+                                json.endObject();
+                                if (courseId == null) throw new IllegalArgumentException("Enrollment without course at line " + line);
+                                courseIds.add(courseId);
+                            }
+                            json.endArray();
+                        }
+                        default -> json.skipValue();
+                    }
+                }
+                json.endObject();
+                
+                Student student;
+                try {
+                    student = builder.build();
+                } catch (NullPointerException e) {
+                    throw new IllegalArgumentException(e.getMessage() + " at line " + line);
+                }
+                for (int i = 0; i < courseIds.size(); i++) {
+                    student.enrollInCourse(courseIds.get(i));
+                    if (!Double.isNaN(scores[i])) student.recordGrade(courseIds.get(i), scores[i]);
+                }
+                studentService.addStudent(student);
+                progress.advance(1, json.getPosition() - position);
+                position = json.getPosition();
+            }
+        }
+    }
+    
+    // Prerequisites are linked once every course in the file exists, whatever the line order.
+    public void importCoursesFromJson(Path filePath, Progress progress) throws IOException {
+        progress.expect(0, Files.size(filePath));
+        Map<String, List<String>> prerequisites = new LinkedHashMap<>();
+        try (JsonReader json = newJsonReader(filePath)) {
+            long position = 0;
+            while (json.hasNextRecord()) {
+                long line = json.getLine();
+                Course.Builder builder = new Course.Builder();
+                List<String> required = new ArrayList<>();
+                json.beginObject();
+                while (json.hasNext()) {
+                    switch (json.nextName()) {
+                        case "code" -> builder.code(json.nextString());
+                        case "title" -> builder.title(json.nextString());
+                        case "credits" -> builder.credits(json.nextInt());
+                        case "instructorId" -> builder.instructorId(json.nextNull() ? null : json.nextString());
+                        case "semester" -> builder.semester(json.nextNull() ? null : Semester.valueOf(json.nextString()));
+                        case "academicYear" -> builder.academicYear(json.nextInt());
+                        case "department" -> builder.department(json.nextNull() ? null : json.nextString());
+                        case "active" -> builder.active(json.nextBoolean());
+                        case "createdAt" -> builder.createdAt(json.nextLong());
+                        case "updatedAt" -> builder.updatedAt(json.nextLong());
+                        case "prerequisites" -> {
+                            json.beginArray();
+                            while (json.hasNext()) required.add(json.nextString());
+                            json.endArray();
+                        }
+                        default -> json.skipValue();
+                    }
+                }
+                json.endObject();
+                
+                Course course;
+                try {
+                    course = builder.build();
+                } catch (NullPointerException e) {
+                    throw new IllegalArgumentException(e.getMessage() + " at line " + line);
+                }
+                courseService.addCourse(course);
+                if (!required.isEmpty()) prerequisites.put(course.getCode(), required);
+                progress.advance(1, json.getPosition() - position);
+                position = json.getPosition();
+            }
+        }
+        prerequisites.forEach((courseId, required) ->
+            required.forEach(prerequisite -> courseService.addPrerequisite(courseId, prerequisite)));
+    }
+    
+    // Rows are streamed straight from the snapshot instead of being collected first.
+    private void writeCSV(Path filePath, String header, Stream<String> rows, Progress progress) throws IOException {
+        try (BufferedWriter writer = newWriter(filePath)) {
+            writer.write(header);
+            writer.newLine();
+            Iterator<String> it = rows.iterator();
+            while (it.hasNext()) {
+                String line = it.next();
+                writer.write(line);
+                writer.newLine();
+                progress.advance(1, line.length() + 1);
+            }
+        }
+    }
+    
+    // Timestamp columns are optional, so files written before they were exported still load.
     private Student parseStudentFromCSV(String csvLine) {
-        String[] parts = csvLine.split(",");
+        String[] parts = splitCSV(csvLine);
         if (parts.length < 5) throw new IllegalArgumentException("Invalid CSV line: " + csvLine);
         
-        return new Student.Builder()
+        Student.Builder builder = new Student.Builder()
             .id(parts[0].trim())
             .regNo(parts[1].trim())
             .fullName(parts[2].trim())
             .email(parts[3].trim())
-            .build();
+            .active(Boolean.parseBoolean(parts[4].trim()));
+        if (parts.length > 6) {
+            builder.createdAt(Long.parseLong(parts[5].trim())).updatedAt(Long.parseLong(parts[6].trim()));
+        }
+        return builder.build();
     }
     
     private Course parseCourseFromCSV(String csvLine) {
-        String[] parts = csvLine.split(",");
+        String[] parts = splitCSV(csvLine);
         if (parts.length < 7) throw new IllegalArgumentException("Invalid CSV line: " + csvLine);
         
-        return new Course.Builder()
+        Course.Builder builder = new Course.Builder()
             .code(parts[0].trim())
             .title(parts[1].trim())
             .credits(Integer.parseInt(parts[2].trim()))
             .instructorId(parts[3].trim())
-            .semester(Semester.valueOf(parts[4].trim().toUpperCase()))
+            .semester(parts[4].isBlank() ? null : Semester.valueOf(parts[4].trim().toUpperCase()))
             .department(parts[5].trim())
-            .build();
+            .active(Boolean.parseBoolean(parts[6].trim()));
+        if (parts.length > 7) builder.academicYear(Integer.parseInt(parts[7].trim()));
+        if (parts.length > 9) {
+            builder.createdAt(Long.parseLong(parts[8].trim())).updatedAt(Long.parseLong(parts[9].trim()));
+        }
+        return builder.build();
+    }
+    
+    // Text holding a comma or a quote is quoted with inner quotes doubled, as in RFC 4180.
+    // The rules keep line breaks out of text, so every row still fits on one line.
+    private static String csvField(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0) return value;
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+    
+    // Rows without quotes, the common case, split as before; trailing empty fields are
+    // dropped either way.
+    private static String[] splitCSV(String line) {
+        if (line.indexOf('"') < 0) return line.split(",");
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c != '"') {
+                    field.append(c);
+                } else if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) throw new IllegalArgumentException("Unterminated quote in CSV line: " + line);
+        fields.add(field.toString());
+        int size = fields.size();
+        while (size > 0 && fields.get(size - 1).isEmpty()) size--;
+        return fields.subList(0, size).toArray(new String[0]);
     }
     
     private String convertStudentToCSV(Student student) {
         return String.join(",",
-            student.getId(), student.getRegNo(), student.getFullName(),
-            student.getEmail(), String.valueOf(student.isActive())
+            student.getId(), student.getRegNo(), csvField(student.getFullName()),
+            student.getEmail(), String.valueOf(student.isActive()),
+            String.valueOf(student.getCreatedAtMillis()), String.valueOf(student.getUpdatedAtMillis())
         );
     }
     
     private String convertCourseToCSV(Course course) {
         return String.join(",",
-            course.getCode(), course.getTitle(), String.valueOf(course.getCredits()),
+            course.getCode(), csvField(course.getTitle()), String.valueOf(course.getCredits()),
             course.getInstructorId() != null ? course.getInstructorId() : "",
             course.getSemester() != null ? course.getSemester().name() : "",
-            course.getDepartment() != null ? course.getDepartment() : "",
-            String.valueOf(course.isActive())
+            course.getDepartment() != null ? csvField(course.getDepartment()) : "",
+            String.valueOf(course.isActive()),
+            String.valueOf(course.getAcademicYear()),
+            String.valueOf(course.getCreatedAtMillis()), String.valueOf(course.getUpdatedAtMillis())
         );
     }
 }
@@ -0,0 +1,132 @@
+package edu.ccrm.io;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicLong;
+
+// A background task tracked by JobManager. Only the worker running it calls advance();
+// every other method may be called from any thread.
+public class Job implements Progress {
+    public enum State { QUEUED, RUNNING, SUCCEEDED, FAILED, CANCELLED }
+    
+    private final int id;
+    private final String description;
+    private final AtomicLong rows = new AtomicLong();
+    private final AtomicLong bytes = new AtomicLong();
+    private final AtomicLong expectedRows = new AtomicLong();
+    private final AtomicLong expectedBytes = new AtomicLong();
+    private volatile State state = State.QUEUED;
+    private volatile boolean cancelRequested;
+    private volatile long bytesPerSecond;
+    private volatile long startedAt;
+    private volatile long finishedAt;
+    private volatile String result;
+    
+    // Throttle baseline, touched only by the worker thread.
+    private long throttleLimit;
+    private long throttleStart;
+    private long throttleBytes;
+    
+    Job(int id, String description, long bytesPerSecond) {
+        this.id = id;
+        this.description = description;
+        this.bytesPerSecond = bytesPerSecond;
+    }
+    
+    @Override
+    public void expect(long rows, long bytes) {
+        expectedRows.addAndGet(rows);
+        expectedBytes.addAndGet(bytes);
+    }
+    
+    // Cancellation and throttling both take effect between rows.
+    @Override
+    public void advance(long rows, long bytes) {
+        if (cancelRequested) throw new CancellationException("Job #" + id + " cancelled");
+        this.rows.addAndGet(rows);
+        throttle(this.bytes.addAndGet(bytes));
+    }
+    
+    private void throttle(long total) {
+        long limit = bytesPerSecond;
+        if (limit <= 0) return;
+        if (limit != throttleLimit) {
+            throttleLimit = limit;
+            throttleStart = System.nanoTime();
+            throttleBytes = total;
+            return;
+        }
+        long due = throttleStart + (long) ((total - throttleBytes) * 1e9 / limit);
+        long wait;
+        while ((wait = due - System.nanoTime()) > 0 && !cancelRequested) {
+            try {
+                Thread.sleep(Math.min(Duration.ofNanos(wait).toMillis() + 1, 100));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CancellationException("Job #" + id + " interrupted");
+            }
+        }
+    }
+    
+    void markRunning() {
+        startedAt = System.nanoTime();
+        state = State.RUNNING;
+    }
+    
+    void finish(State state, String result) {
+        this.finishedAt = System.nanoTime();
+        this.result = result;
+        this.state = state;
+    }
+    
+    public void cancel() {
+        cancelRequested = true;
+    }
+    
+    public boolean isCancelRequested() { return cancelRequested; }
+    
+    public void setBytesPerSecond(long bytesPerSecond) {
+        this.bytesPerSecond = Math.max(0, bytesPerSecond);
+    }
+    
+    public int getId() { return id; }
+    public String getDescription() { return description; }
+    public State getState() { return state; }
+    public long getRows() { return rows.get(); }
+    public long getBytes() { return bytes.get(); }
+    public long getExpectedRows() { return expectedRows.get(); }
+    public long getExpectedBytes() { return expectedBytes.get(); }
+    public long getBytesPerSecond() { return bytesPerSecond; }
+    public String getResult() { return result; }
+    
+    public boolean isDone() {
+        State current = state;
+        return current != State.QUEUED && current != State.RUNNING;
+    }
+    
+    public Duration getElapsed() {
+        if (state == State.QUEUED) return Duration.ZERO;
+        long end = isDone() ? finishedAt : System.nanoTime();
+        return Duration.ofNanos(end - startedAt);
+    }
+    
+    // Fraction done by bytes when the input size is known, otherwise by rows.
+    public Optional<Double> getFractionDone() {
+        long total = expectedBytes.get();
+        long done = bytes.get();
+        if (total <= 0) {
+            total = expectedRows.get();
+            done = rows.get();
+        }
+        if (total <= 0) return Optional.empty();
+        return Optional.of(Math.min(1.0, (double) done / total));
+    }
+    
+    public Optional<Duration> getEta() {
+        if (state != State.RUNNING) return Optional.empty();
+        return getFractionDone()
+            .filter(fraction -> fraction > 0)
+            .map(fraction -> Duration.ofNanos((long) (getElapsed().toNanos() * (1 - fraction) / fraction)));
+    }
+}
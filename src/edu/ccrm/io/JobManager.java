@@ -0,0 +1,102 @@
+package edu.ccrm.io;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Runs import, export and backup work on its own threads so the console stays responsive.
+public class JobManager implements AutoCloseable {
+    @FunctionalInterface
+    public interface Task {
+        // Returns a one-line summary shown once the job succeeds.
+        String run(Progress progress) throws Exception;
+    }
+    
+    private final ExecutorService executor;
+    private final Map<Integer, Job> jobs = new ConcurrentSkipListMap<>();
+    private final AtomicInteger nextId = new AtomicInteger(1);
+    private final AtomicInteger threadCount = new AtomicInteger(1);
+    private volatile long defaultBytesPerSecond;
+    
+    public JobManager(int threads, long defaultBytesPerSecond) {
+        if (threads <= 0) throw new IllegalArgumentException("Job threads must be positive");
+        this.defaultBytesPerSecond = Math.max(0, defaultBytesPerSecond);
+        this.executor = Executors.newFixedThreadPool(threads, task -> {
+            Thread thread = new Thread(task, "ccrm-job-" + threadCount.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+    
+    // Applies to jobs submitted afterwards; running jobs keep their own throttle.
+    public void setDefaultBytesPerSecond(long bytesPerSecond) {
+        this.defaultBytesPerSecond = Math.max(0, bytesPerSecond);
+    }
+    
+    public Job submit(String description, Task task) {
+        Job job = new Job(nextId.getAndIncrement(), description, defaultBytesPerSecond);
+        jobs.put(job.getId(), job);
+        executor.execute(() -> run(job, task));
+        return job;
+    }
+    
+    private void run(Job job, Task task) {
+        job.markRunning();
+        if (job.isCancelRequested()) {
+            job.finish(Job.State.CANCELLED, "Cancelled before start");
+            return;
+        }
+        try {
+            job.finish(Job.State.SUCCEEDED, task.run(job));
+        } catch (CancellationException e) {
+            job.finish(Job.State.CANCELLED, "Cancelled after " + job.getRows() + " rows");
+        } catch (Exception e) {
+            // A cancelled job may also fail on the half-written file it leaves behind.
+            job.finish(job.isCancelRequested() ? Job.State.CANCELLED : Job.State.FAILED, e.getMessage());
+        }
+    }
+    
+    public List<Job> getJobs() {
+        return new ArrayList<>(jobs.values());
+    }
+    
+    public Optional<Job> getJob(int id) {
+        return Optional.ofNullable(jobs.get(id));
+    }
+    
+    public boolean cancel(int id) {
+        Job job = jobs.get(id);
+        if (job == null || job.isDone()) return false;
+        job.cancel();
+        return true;
+    }
+    
+    public int getActiveCount() {
+        return (int) jobs.values().stream().filter(job -> !job.isDone()).count();
+    }
+    
+    public int clearFinished() {
+        int before = jobs.size();
+        jobs.values().removeIf(Job::isDone);
+        return before - jobs.size();
+    }
+    
+    // Cancels whatever is still queued or running; partial output files are left in place.
+    @Override
+    public void close() {
+        jobs.values().forEach(Job::cancel);
+        executor.shutdown();
+        try {
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
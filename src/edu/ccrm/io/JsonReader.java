@@ -0,0 +1,360 @@
+package edu.ccrm.io;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Minimal streaming JSON pull reader for the JSON-lines format. Characters are parsed in
+ * place from one reused buffer: strings without escapes become a single String, and
+ * short decimal numbers are converted without any allocation. The caller walks the
+ * structure with beginObject/hasNext/nextName and the typed next* methods, and can
+ * skipValue() anything it does not know. Malformed input throws IllegalArgumentException
+ * naming the line.
+ */
+public final class JsonReader implements Closeable {
+    private static final int MAX_DEPTH = 64;
+    private static final double[] POWERS_OF_TEN = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+        1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+    
+    private final Reader in;
+    private final char[] buffer;
+    private int pos;
+    private int limit;
+    private long consumedBefore;
+    private long line = 1;
+    // Per nesting level: whether an element was read, so the next one must follow a comma.
+    private final boolean[] hasElement = new boolean[MAX_DEPTH];
+    private int depth;
+    // Set by hasNext() once the separating comma has been consumed.
+    private boolean ready;
+    // Set by nextName(): the member's value comes next and needs no comma.
+    private boolean expectValue;
+    private final StringBuilder scratch = new StringBuilder();
+    
+    public JsonReader(Reader in, int bufferSize) {
+        this.in = in;
+        this.buffer = new char[Math.max(bufferSize, 64)];
+    }
+    
+    public long getLine() { return line; }
+    
+    // Characters consumed so far; equal to bytes for ASCII input.
+    public long getPosition() { return consumedBefore + pos; }
+    
+    // True when another top-level record follows; blank lines between records are skipped.
+    public boolean hasNextRecord() throws IOException {
+        if (depth != 0) throw error("Previous record was not read to its end");
+        return skipWhitespace() >= 0;
+    }
+    
+    public void beginObject() throws IOException {
+        open('{');
+    }
+    
+    public void endObject() throws IOException {
+        close('}');
+    }
+    
+    public void beginArray() throws IOException {
+        open('[');
+    }
+    
+    public void endArray() throws IOException {
+        close(']');
+    }
+    
+    // True if the current object or array has another member; consumes the comma before it.
+    public boolean hasNext() throws IOException {
+        if (ready) return true;
+        int c = skipWhitespace();
+        if (c == '}' || c == ']') return false;
+        if (hasElement[depth]) {
+            if (c != ',') throw error("Expected ',' but found " + describe(c));
+            pos++;
+        }
+        hasElement[depth] = true;
+        ready = true;
+        return true;
+    }
+    
+    public String nextName() throws IOException {
+        if (expectValue) throw error("Expected a value, not another name");
+        expectNext();
+        if (skipWhitespace() != '"') throw error("Expected a member name");
+        pos++;
+        String name = readString();
+        if (skipWhitespace() != ':') throw error("Expected ':' after \"" + name + "\"");
+        pos++;
+        expectValue = true;
+        return name;
+    }
+    
+    public String nextString() throws IOException {
+        startValue();
+        int c = skipWhitespace();
+        if (c != '"') throw error("Expected a string but found " + describe(c));
+        pos++;
+        return readString();
+    }
+    
+    public boolean nextBoolean() throws IOException {
+        startValue();
+        int c = skipWhitespace();
+        if (c == 't') {
+            literal("true");
+            return true;
+        }
+        if (c == 'f') {
+            literal("false");
+            return false;
+        }
+        throw error("Expected a boolean but found " + describe(c));
+    }
+    
+    // Consumes a null and returns true, or returns false and leaves any other value unread.
+    public boolean nextNull() throws IOException {
+        if (peekValue() != 'n') return false;
+        startValue();
+        literal("null");
+        return true;
+    }
+    
+    // Consumes the comma before an array element, if any, and returns the value's first character.
+    private int peekValue() throws IOException {
+        if (!expectValue && depth > 0) {
+            expectNext();
+            ready = true;
+        }
+        return skipWhitespace();
+    }
+    
+    public long nextLong() throws IOException {
+        startValue();
+        int c = skipWhitespace();
+        boolean negative = c == '-';
+        if (negative) pos++;
+        long value = 0;
+        int digits = 0;
+        while (pos < limit || fill()) {
+            char ch = buffer[pos];
+            if (ch < '0' || ch > '9') {
+                if (ch == '.' || ch == 'e' || ch == 'E') throw error("Expected a whole number");
+                break;
+            }
+            if (value > (Long.MAX_VALUE - (ch - '0')) / 10) throw error("Number out of range");
+            value = value * 10 + (ch - '0');
+            digits++;
+            pos++;
+        }
+        if (digits == 0) throw error("Expected a number but found " + describe(c));
+        return negative ? -value : value;
+    }
+    
+    public int nextInt() throws IOException {
+        long value = nextLong();
+        if (value != (int) value) throw error("Number out of int range: " + value);
+        return (int) value;
+    }
+    
+    // Up to 15 significant digits and 22 decimal places convert exactly with one multiply or
+    // divide; anything longer falls back to Double.parseDouble.
+    public double nextDouble() throws IOException {
+        startValue();
+        int c = skipWhitespace();
+        if (c != '-' && (c < '0' || c > '9')) throw error("Expected a number but found " + describe(c));
+        scratch.setLength(0);
+        boolean negative = false;
+        long mantissa = 0;
+        int digits = 0;
+        int scale = 0;
+        boolean fraction = false;
+        boolean sawDigit = false;
+        boolean simple = true;
+        while (true) {
+            if (pos == limit && !fill()) break;
+            char ch = buffer[pos];
+            if (ch >= '0' && ch <= '9') {
+                sawDigit = true;
+                if (mantissa != 0 || ch != '0') digits++;
+                mantissa = mantissa * 10 + (ch - '0');
+                if (fraction) scale++;
+            } else if (ch == '.' && !fraction) {
+                fraction = true;
+            } else if (ch == '-' && scratch.isEmpty()) {
+                negative = true;
+            } else if (ch == 'e' || ch == 'E' || ch == '+' || ch == '-') {
+                simple = false;
+            } else {
+                break;
+            }
+            scratch.append(ch);
+            pos++;
+        }
+        if (!sawDigit || (fraction && scale == 0)) throw error("Malformed number " + scratch);
+        if (simple && digits <= 15 && scale < POWERS_OF_TEN.length) {
+            double value = scale == 0 ? mantissa : mantissa / POWERS_OF_TEN[scale];
+            return negative ? -value : value;
+        }
+        try {
+            return Double.parseDouble(scratch.toString());
+        } catch (NumberFormatException e) {
+            throw error("Malformed number " + scratch);
+        }
+    }
+    
+    public void skipValue() throws IOException {
+        int c = peekValue();
+        switch (c) {
+            case '{' -> {
+                beginObject();
+                while (hasNext()) {
+                    nextName();
+                    skipValue();
+                }
+                endObject();
+            }
+            case '[' -> {
+                beginArray();
+                while (hasNext()) skipValue();
+                endArray();
+            }
+            case '"' -> nextString();
+            case 't', 'f' -> nextBoolean();
+            case 'n' -> nextNull();
+            default -> nextDouble();
+        }
+    }
+    
+    private void open(char bracket) throws IOException {
+        startValue();
+        int c = skipWhitespace();
+        if (c != bracket) throw error("Expected '" + bracket + "' but found " + describe(c));
+        if (depth + 1 == MAX_DEPTH) throw error("Nesting deeper than " + MAX_DEPTH);
+        pos++;
+        hasElement[++depth] = false;
+    }
+    
+    private void close(char bracket) throws IOException {
+        if (expectValue) throw error("Expected a value before '" + bracket + "'");
+        if (ready) throw error("Expected '" + bracket + "' after ','");
+        int c = skipWhitespace();
+        if (c != bracket || depth == 0) throw error("Expected '" + bracket + "' but found " + describe(c));
+        pos++;
+        depth--;
+    }
+    
+    // A member's value follows its name directly; an array element needs the comma handling of hasNext().
+    private void startValue() throws IOException {
+        if (expectValue) {
+            expectValue = false;
+        } else if (depth > 0) {
+            expectNext();
+        }
+    }
+    
+    private void expectNext() throws IOException {
+        if (!hasNext()) throw error("Unexpected end of object or array");
+        ready = false;
+    }
+    
+    // Fast path: a string with no escapes that fits in the buffer becomes one String.
+    private String readString() throws IOException {
+        int start = pos;
+        while (pos < limit) {
+            char c = buffer[pos];
+            if (c == '"') {
+                String value = new String(buffer, start, pos - start);
+                pos++;
+                return value;
+            }
+            if (c == '\\' || c < 0x20) break;
+            pos++;
+        }
+        scratch.setLength(0);
+        scratch.append(buffer, start, pos - start);
+        while (true) {
+            if (pos == limit && !fill()) throw error("Unterminated string");
+            char c = buffer[pos++];
+            if (c == '"') return scratch.toString();
+            if (c == '\\') {
+                scratch.append(readEscape());
+            } else if (c < 0x20) {
+                throw error("Unescaped control character in string");
+            } else {
+                scratch.append(c);
+            }
+        }
+    }
+    
+    private char readEscape() throws IOException {
+        if (pos == limit && !fill()) throw error("Unterminated escape");
+        char c = buffer[pos++];
+        return switch (c) {
+            case '"', '\\', '/' -> c;
+            case 'n' -> '\n';
+            case 'r' -> '\r';
+            case 't' -> '\t';
+            case 'b' -> '\b';
+            case 'f' -> '\f';
+            case 'u' -> {
+                int value = 0;
+                for (int i = 0; i < 4; i++) {
+                    if (pos == limit && !fill()) throw error("Unterminated escape");
+                    int digit = Character.digit(buffer[pos++], 16);
+                    if (digit < 0) throw error("Malformed \\u escape");
+                    value = value << 4 | digit;
+                }
+                yield (char) value;
+            }
+            default -> throw error("Unknown escape \\" + c);
+        };
+    }
+    
+    private void literal(String word) throws IOException {
+        for (int i = 0; i < word.length(); i++) {
+            if (pos == limit && !fill()) throw error("Expected " + word);
+            if (buffer[pos++] != word.charAt(i)) throw error("Expected " + word);
+        }
+    }
+    
+    // Returns the next significant character without consuming it, or -1 at end of input.
+    private int skipWhitespace() throws IOException {
+        while (true) {
+            if (pos == limit && !fill()) return -1;
+            char c = buffer[pos];
+            if (!isWhitespace(c)) return c;
+            if (c == '\n') line++;
+            pos++;
+        }
+    }
+    
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\n' || c == '\r' || c == '\t';
+    }
+    
+    private boolean fill() throws IOException {
+        consumedBefore += limit;
+        pos = 0;
+        limit = 0;
+        int read = in.read(buffer, 0, buffer.length);
+        if (read <= 0) return false;
+        limit = read;
+        return true;
+    }
+    
+    private static String describe(int c) {
+        return c < 0 ? "end of input" : "'" + (char) c + "'";
+    }
+    
+    private IllegalArgumentException error(String message) {
+        return new IllegalArgumentException("Malformed JSON at line " + line + ": " + message);
+    }
+    
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+}
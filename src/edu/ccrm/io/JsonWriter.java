@@ -0,0 +1,209 @@
+package edu.ccrm.io;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Minimal streaming JSON writer for the JSON-lines format: one object per line, with no
+ * intermediate tree or string building. Output collects in a private char buffer that is
+ * handed to the underlying writer in large chunks, so a record costs no per-token calls
+ * (or locks) on it. Commas and colons are placed automatically; endRecord() terminates
+ * the current line.
+ */
+public final class JsonWriter implements Closeable, Flushable {
+    private static final int MAX_DEPTH = 64;
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+    
+    private final Writer out;
+    private final char[] buffer;
+    private int count;
+    // Whether a value was already written at each nesting level, i.e. the next one needs a comma.
+    private final boolean[] hasValue = new boolean[MAX_DEPTH];
+    private int depth;
+    private boolean afterName;
+    
+    public JsonWriter(Writer out, int bufferSize) {
+        this.out = out;
+        this.buffer = new char[Math.max(bufferSize, 64)];
+    }
+    
+    public JsonWriter beginObject() throws IOException {
+        return open('{');
+    }
+    
+    public JsonWriter endObject() throws IOException {
+        return close('}');
+    }
+    
+    public JsonWriter beginArray() throws IOException {
+        return open('[');
+    }
+    
+    public JsonWriter endArray() throws IOException {
+        return close(']');
+    }
+    
+    public JsonWriter name(String name) throws IOException {
+        beforeValue();
+        writeString(name);
+        put(':');
+        afterName = true;
+        return this;
+    }
+    
+    public JsonWriter value(String value) throws IOException {
+        if (value == null) return nullValue();
+        beforeValue();
+        writeString(value);
+        return this;
+    }
+    
+    public JsonWriter value(long value) throws IOException {
+        beforeValue();
+        putLong(value);
+        return this;
+    }
+    
+    // Double.toString yields the shortest text that parses back to the same double.
+    public JsonWriter value(double value) throws IOException {
+        if (!Double.isFinite(value)) throw new IllegalArgumentException("JSON numbers must be finite: " + value);
+        beforeValue();
+        put(Double.toString(value));
+        return this;
+    }
+    
+    public JsonWriter value(boolean value) throws IOException {
+        beforeValue();
+        put(value ? "true" : "false");
+        return this;
+    }
+    
+    public JsonWriter nullValue() throws IOException {
+        beforeValue();
+        put("null");
+        return this;
+    }
+    
+    public void endRecord() throws IOException {
+        if (depth != 0) throw new IllegalStateException("Record ended inside an open object or array");
+        put('\n');
+        hasValue[0] = false;
+    }
+    
+    private JsonWriter open(char bracket) throws IOException {
+        if (depth + 1 == MAX_DEPTH) throw new IllegalStateException("Nesting deeper than " + MAX_DEPTH);
+        beforeValue();
+        put(bracket);
+        hasValue[++depth] = false;
+        return this;
+    }
+    
+    private JsonWriter close(char bracket) throws IOException {
+        if (depth == 0 || afterName) throw new IllegalStateException("Nothing open to close with " + bracket);
+        depth--;
+        put(bracket);
+        return this;
+    }
+    
+    private void beforeValue() throws IOException {
+        if (afterName) {
+            afterName = false;
+            return;
+        }
+        if (hasValue[depth]) put(',');
+        hasValue[depth] = true;
+    }
+    
+    // Unescaped runs are written in one call; only quotes, backslashes and control characters are escaped.
+    private void writeString(String value) throws IOException {
+        put('"');
+        int start = 0;
+        int length = value.length();
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c >= 0x20 && c != '"' && c != '\\') continue;
+            put(value, start, i - start);
+            start = i + 1;
+            switch (c) {
+                case '"' -> put("\\\"");
+                case '\\' -> put("\\\\");
+                case '\n' -> put("\\n");
+                case '\r' -> put("\\r");
+                case '\t' -> put("\\t");
+                case '\b' -> put("\\b");
+                case '\f' -> put("\\f");
+                default -> {
+                    put("\\u00");
+                    put(HEX[c >> 4]);
+                    put(HEX[c & 0xF]);
+                }
+            }
+        }
+        put(value, start, length - start);
+        put('"');
+    }
+    
+    private void put(char c) throws IOException {
+        if (count == buffer.length) drain();
+        buffer[count++] = c;
+    }
+    
+    private void put(String text) throws IOException {
+        put(text, 0, text.length());
+    }
+    
+    private void put(String text, int start, int length) throws IOException {
+        while (length > 0) {
+            if (count == buffer.length) drain();
+            int chunk = Math.min(length, buffer.length - count);
+            text.getChars(start, start + chunk, buffer, count);
+            count += chunk;
+            start += chunk;
+            length -= chunk;
+        }
+    }
+    
+    // Digits go straight into the buffer instead of through Long.toString.
+    private void putLong(long value) throws IOException {
+        if (value == Long.MIN_VALUE) {
+            put(Long.toString(value));
+            return;
+        }
+        if (buffer.length - count < 20) drain();
+        if (value < 0) {
+            buffer[count++] = '-';
+            value = -value;
+        }
+        int digits = 1;
+        for (long rest = value; rest >= 10; rest /= 10) digits++;
+        int end = count + digits;
+        int i = end;
+        do {
+            buffer[--i] = (char) ('0' + value % 10);
+            value /= 10;
+        } while (value != 0);
+        count = end;
+    }
+    
+    private void drain() throws IOException {
+        out.write(buffer, 0, count);
+        count = 0;
+    }
+    
+    @Override
+    public void flush() throws IOException {
+        drain();
+        out.flush();
+    }
+    
+    @Override
+    public void close() throws IOException {
+        try {
+            drain();
+        } finally {
+            out.close();
+        }
+    }
+}
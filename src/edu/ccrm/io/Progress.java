@@ -0,0 +1,12 @@
+package edu.ccrm.io;
+
+// Receives row and byte counts from long-running import, export and backup work.
+@FunctionalInterface
+public interface Progress {
+    Progress NONE = (rows, bytes) -> {};
+    
+    // Adds to the expected totals; either may be 0 when it is not known up front.
+    default void expect(long rows, long bytes) {}
+    
+    void advance(long rows, long bytes);
+}
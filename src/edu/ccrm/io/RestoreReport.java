@@ -0,0 +1,23 @@
+package edu.ccrm.io;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+// What a restore loaded and how fast; verified is false for backups without checksums.
+public record RestoreReport(Path backup, boolean verified, long rows, long bytes,
+                            Duration verifyTime, Duration loadTime) {
+    public double rowsPerSecond() {
+        return loadTime.isZero() ? 0 : rows * 1e9 / loadTime.toNanos();
+    }
+    
+    public double megabytesPerSecond() {
+        return loadTime.isZero() ? 0 : bytes * 1e9 / loadTime.toNanos() / (1024 * 1024);
+    }
+    
+    @Override
+    public String toString() {
+        return String.format("%d rows (%d bytes) from %s, %s, verified in %d ms, loaded in %d ms (%.0f rows/s, %.1f MB/s)",
+            rows, bytes, backup.getFileName(), verified ? "checksums OK" : "no checksums",
+            verifyTime.toMillis(), loadTime.toMillis(), rowsPerSecond(), megabytesPerSecond());
+    }
+}
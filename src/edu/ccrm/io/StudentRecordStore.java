@@ -0,0 +1,228 @@
+package edu.ccrm.io;
+
+import edu.ccrm.domain.Student;
+import edu.ccrm.util.Interner;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/**
+ * Fixed-layout student records in a memory-mapped file. Only the ID column is
+ * read at open time to build the ID -> slot index; everything else is decoded
+ * when a record is actually requested.
+ */
+public class StudentRecordStore implements Closeable {
+    private static final int MAGIC = 0x43435232; // "CCR2"
+    private static final int MAGIC_V1 = 0x43435231; // "CCR1", without timestamps
+    private static final int HEADER_SIZE = 64;
+    static final int RECORD_SIZE = 528;
+    
+    private static final int ID_LEN = 16;
+    private static final int REG_NO_LEN = 16;
+    private static final int NAME_LEN = 96;
+    private static final int EMAIL_LEN = 96;
+    private static final int COURSE_CODE_LEN = 12;
+    static final int MAX_ENROLLMENTS = 12;
+    
+    private static final int OFF_ID = 0;
+    private static final int OFF_REG_NO = OFF_ID + 2 + ID_LEN;
+    private static final int OFF_NAME = OFF_REG_NO + 2 + REG_NO_LEN;
+    private static final int OFF_EMAIL = OFF_NAME + 2 + NAME_LEN;
+    private static final int OFF_CREATED = OFF_EMAIL + 2 + EMAIL_LEN;
+    private static final int OFF_UPDATED = OFF_CREATED + 8;
+    private static final int OFF_ACTIVE = OFF_UPDATED + 8;
+    private static final int OFF_ENROLL_COUNT = OFF_ACTIVE + 1;
+    private static final int OFF_ENROLLMENTS = OFF_ENROLL_COUNT + 1;
+    // course code, has-grade flag, score
+    private static final int ENROLLMENT_SLOT = 2 + COURSE_CODE_LEN + 1 + 8;
+    
+    private final FileChannel channel;
+    private final Map<String, Integer> index;
+    private MappedByteBuffer buffer;
+    private int capacity;
+    private int recordCount;
+    
+    public StudentRecordStore(Path file) throws IOException {
+        this(file, 1024);
+    }
+    
+    public StudentRecordStore(Path file, int initialCapacity) throws IOException {
+        assert OFF_ENROLLMENTS + MAX_ENROLLMENTS * ENROLLMENT_SLOT <= RECORD_SIZE;
+        boolean existing = Files.exists(file) && Files.size(file) >= HEADER_SIZE;
+        this.channel = FileChannel.open(file,
+            StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.index = new HashMap<>();
+        
+        if (existing) {
+            this.capacity = (int) ((channel.size() - HEADER_SIZE) / RECORD_SIZE);
+            map();
+            int magic = buffer.getInt(0);
+            if (magic != MAGIC) {
+                channel.close();
+                throw new IOException(magic == MAGIC_V1
+                    ? "Student record store has an old layout, restore it from a backup: " + file
+                    : "Not a student record store: " + file);
+            }
+            this.recordCount = buffer.getInt(4);
+            for (int slot = 0; slot < recordCount; slot++) {
+                index.put(readString(offset(slot) + OFF_ID), slot);
+            }
+        } else {
+            this.capacity = Math.max(initialCapacity, 16);
+            map();
+            buffer.putInt(0, MAGIC);
+            buffer.putInt(4, 0);
+        }
+    }
+    
+    private void map() throws IOException {
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + (long) capacity * RECORD_SIZE);
+    }
+    
+    private static int offset(int slot) {
+        return HEADER_SIZE + slot * RECORD_SIZE;
+    }
+    
+    public synchronized boolean contains(String id) {
+        return index.containsKey(id);
+    }
+    
+    public synchronized int size() {
+        return recordCount;
+    }
+    
+    public synchronized List<String> ids() {
+        return new ArrayList<>(index.keySet());
+    }
+    
+    public synchronized Optional<Student> read(String id) {
+        Integer slot = index.get(id);
+        return slot == null ? Optional.empty() : Optional.of(decode(offset(slot)));
+    }
+    
+    public synchronized void write(Student student) {
+        checkRecord(student);
+        Integer slot = index.get(student.getId());
+        if (slot == null) {
+            if (recordCount == capacity) grow();
+            slot = recordCount++;
+            index.put(student.getId(), slot);
+            buffer.putInt(4, recordCount);
+        }
+        encode(student, offset(slot));
+    }
+    
+    // Throws IllegalArgumentException if the student does not fit a record. Callers check
+    // before changing anything, so a rejected change leaves no half-applied state.
+    public void checkRecord(Student student) {
+        if (student.getEnrolledCourses().size() > MAX_ENROLLMENTS) {
+            throw new IllegalArgumentException("Record store holds at most " + MAX_ENROLLMENTS
+                + " enrollments per student: " + student.getId());
+        }
+        checkLength(student.getId(), ID_LEN);
+        checkLength(student.getRegNo(), REG_NO_LEN);
+        checkLength(student.getFullName(), NAME_LEN);
+        checkLength(student.getEmail(), EMAIL_LEN);
+        student.getEnrolledCourses().forEach(courseId -> checkLength(courseId, COURSE_CODE_LEN));
+    }
+    
+    // Whether the record would still fit with courseId added to its enrollments.
+    public void checkEnrollment(Student student, String courseId) {
+        if (student.getEnrolledCourses().contains(courseId)) return;
+        if (student.getEnrolledCourses().size() >= MAX_ENROLLMENTS) {
+            throw new IllegalArgumentException("Record store holds at most " + MAX_ENROLLMENTS
+                + " enrollments per student: " + student.getId());
+        }
+        checkLength(courseId, COURSE_CODE_LEN);
+    }
+    
+    private static void checkLength(String value, int maxLen) {
+        if (value.getBytes(StandardCharsets.UTF_8).length > maxLen) {
+            throw new IllegalArgumentException("Value exceeds " + maxLen + " bytes: " + value);
+        }
+    }
+    
+    private void grow() {
+        buffer.force();
+        capacity *= 2;
+        try {
+            map();
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to grow record store", e);
+        }
+    }
+    
+    private Student decode(int base) {
+        Student student = new Student.Builder()
+            .id(readString(base + OFF_ID))
+            .regNo(readString(base + OFF_REG_NO))
+            .fullName(readString(base + OFF_NAME))
+            .email(readString(base + OFF_EMAIL))
+            .active(buffer.get(base + OFF_ACTIVE) != 0)
+            .createdAt(buffer.getLong(base + OFF_CREATED))
+            .updatedAt(buffer.getLong(base + OFF_UPDATED))
+            .build();
+        
+        int enrollments = buffer.get(base + OFF_ENROLL_COUNT);
+        for (int i = 0; i < enrollments; i++) {
+            int slotBase = base + OFF_ENROLLMENTS + i * ENROLLMENT_SLOT;
+            // Stored records were accepted when written, so their course IDs may be pooled.
+            String courseId = Interner.intern(readString(slotBase));
+            student.enrollInCourse(courseId);
+            if (buffer.get(slotBase + 2 + COURSE_CODE_LEN) != 0) {
+                student.recordGrade(courseId, buffer.getDouble(slotBase + 3 + COURSE_CODE_LEN));
+            }
+        }
+        return student;
+    }
+    
+    private void encode(Student student, int base) {
+        writeString(base + OFF_ID, student.getId());
+        writeString(base + OFF_REG_NO, student.getRegNo());
+        writeString(base + OFF_NAME, student.getFullName());
+        writeString(base + OFF_EMAIL, student.getEmail());
+        buffer.putLong(base + OFF_CREATED, student.getCreatedAtMillis());
+        buffer.putLong(base + OFF_UPDATED, student.getUpdatedAtMillis());
+        buffer.put(base + OFF_ACTIVE, (byte) (student.isActive() ? 1 : 0));
+        buffer.put(base + OFF_ENROLL_COUNT, (byte) student.getEnrolledCourses().size());
+        
+        int i = 0;
+        for (String courseId : student.getEnrolledCourses()) {
+            int slotBase = base + OFF_ENROLLMENTS + i++ * ENROLLMENT_SLOT;
+            writeString(slotBase, courseId);
+            Double score = student.getGrade(courseId);
+            buffer.put(slotBase + 2 + COURSE_CODE_LEN, (byte) (score != null ? 1 : 0));
+            buffer.putDouble(slotBase + 3 + COURSE_CODE_LEN, score != null ? score : 0.0);
+        }
+    }
+    
+    private String readString(int pos) {
+        int len = buffer.getShort(pos);
+        byte[] bytes = new byte[len];
+        buffer.get(pos + 2, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+    
+    private void writeString(int pos, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        buffer.putShort(pos, (short) bytes.length);
+        buffer.put(pos + 2, bytes);
+    }
+    
+    public synchronized void flush() {
+        buffer.force();
+    }
+    
+    @Override
+    public synchronized void close() throws IOException {
+        buffer.force();
+        channel.close();
+    }
+}
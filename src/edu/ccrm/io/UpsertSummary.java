@@ -0,0 +1,11 @@
+package edu.ccrm.io;
+
+// Outcome counts of an upsert import; unchanged rows were skipped before parsing.
+public record UpsertSummary(long added, long updated, long unchanged) {
+    public long total() { return added + updated + unchanged; }
+    
+    @Override
+    public String toString() {
+        return String.format("%d added, %d updated, %d unchanged", added, updated, unchanged);
+    }
+}
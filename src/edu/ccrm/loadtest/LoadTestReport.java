@@ -0,0 +1,56 @@
+package edu.ccrm.loadtest;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+// Outcome of a load-test run; violations lists every broken invariant found afterwards.
+public record LoadTestReport(int users, int shards, Duration elapsed,
+                             Map<RegistrationLoadTest.Operation, OperationStats> operations, List<String> violations) {
+    
+    // Latencies are in nanoseconds; failures counts each exception type the operation threw.
+    public record OperationStats(long count, long p50, long p90, long p99, long p999, long max,
+                                 Map<String, Long> failures) {
+        public long failed() {
+            return failures.values().stream().mapToLong(Long::longValue).sum();
+        }
+        
+        public double failureRate(String exception) {
+            return count == 0 ? 0 : (double) failures.getOrDefault(exception, 0L) / count;
+        }
+    }
+    
+    public long totalOperations() {
+        return operations.values().stream().mapToLong(OperationStats::count).sum();
+    }
+    
+    public double throughput() {
+        return totalOperations() / Math.max(elapsed.toNanos() / 1e9, 1e-9);
+    }
+    
+    public boolean passed() {
+        return violations.isEmpty();
+    }
+    
+    @Override
+    public String toString() {
+        StringBuilder out = new StringBuilder();
+        out.append(String.format("%,d operations from %,d virtual users on %d shard(s) in %,d ms: %,.0f ops/s%n",
+            totalOperations(), users, shards, elapsed.toMillis(), throughput()));
+        out.append(String.format("%-9s %10s %10s %10s %10s %10s %10s%n",
+            "op", "count", "p50 µs", "p90 µs", "p99 µs", "p99.9 µs", "max µs"));
+        operations.forEach((operation, stats) -> out.append(String.format("%-9s %,10d %,10.1f %,10.1f %,10.1f %,10.1f %,10.1f%n",
+            operation, stats.count(), stats.p50() / 1e3, stats.p90() / 1e3, stats.p99() / 1e3,
+            stats.p999() / 1e3, stats.max() / 1e3)));
+        operations.forEach((operation, stats) -> stats.failures().forEach((exception, count) ->
+            out.append(String.format("%-9s %s: %,d (%.2f%%)%n", operation, exception, count,
+                100.0 * stats.failureRate(exception)))));
+        if (violations.isEmpty()) {
+            out.append("Invariants held: no credit limit breached, ledgers and rosters consistent");
+        } else {
+            out.append(violations.size()).append(" invariant violation(s):");
+            violations.stream().limit(20).forEach(violation -> out.append(System.lineSeparator()).append("  ").append(violation));
+        }
+        return out.toString();
+    }
+}
@@ -0,0 +1,328 @@
+package edu.ccrm.loadtest;
+
+import edu.ccrm.config.AppConfig;
+import edu.ccrm.domain.AcademicTerm;
+import edu.ccrm.domain.Course;
+import edu.ccrm.domain.Semester;
+import edu.ccrm.domain.Student;
+import edu.ccrm.service.CourseService;
+import edu.ccrm.service.EnrollmentService;
+import edu.ccrm.service.Snapshot;
+import edu.ccrm.service.StudentService;
+
+import java.time.Duration;
+import java.time.Year;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Registration-day load test. Builds a fresh course catalogue and student body in one
+ * term, then releases thousands of virtual-thread users at once. They share a fixed
+ * budget of operations drawn from a weighted mix. Course choices follow a Zipf
+ * distribution, so a few hot courses take most of the traffic, as at registration
+ * opening. Every operation's latency is recorded and its exceptions are counted.
+ * Afterwards the final state is checked: no student may exceed the credit limit in
+ * the term, each per-term credit ledger must match the enrollments it summarises, and
+ * each cached roster must match the students actually enrolled.
+ *
+ * Run from the command line with key=value arguments, for example:
+ *   java -cp bin edu.ccrm.loadtest.RegistrationLoadTest users=5000 operations=500000 shards=4 mix=70,10,15,5
+ * The mix weights are, in order: enroll, grade, roster, unenroll. The exit status is 1
+ * when an invariant was broken.
+ */
+public class RegistrationLoadTest {
+    public enum Operation { ENROLL, GRADE, ROSTER, UNENROLL }
+    
+    private final int students;
+    private final int courses;
+    private final int users;
+    private final long operations;
+    private final int shards;
+    private final double zipfExponent;
+    private final long seed;
+    private final EnumMap<Operation, Integer> mix;
+    
+    private RegistrationLoadTest(Builder builder) {
+        this.students = builder.students;
+        this.courses = builder.courses;
+        this.users = builder.users;
+        this.operations = builder.operations;
+        this.shards = builder.shards;
+        this.zipfExponent = builder.zipfExponent;
+        this.seed = builder.seed;
+        this.mix = new EnumMap<>(builder.mix);
+        if (mix.values().stream().mapToInt(Integer::intValue).sum() <= 0) {
+            throw new IllegalArgumentException("Operation mix needs at least one positive weight");
+        }
+    }
+    
+    public static class Builder {
+        private int students = 20_000;
+        private int courses = 400;
+        private int users = 5_000;
+        private long operations = 200_000;
+        private int shards = Math.max(1, AppConfig.getInstance().getStudentShards());
+        private double zipfExponent = 1.1;
+        private long seed = 42;
+        private final EnumMap<Operation, Integer> mix = new EnumMap<>(Map.of(
+            Operation.ENROLL, 60, Operation.GRADE, 15, Operation.ROSTER, 20, Operation.UNENROLL, 5));
+        
+        public Builder students(int students) { this.students = positive(students, "Students"); return this; }
+        public Builder courses(int courses) {
+            if (courses > 26_000) throw new IllegalArgumentException("Courses must be at most 26,000");
+            this.courses = positive(courses, "Courses");
+            return this;
+        }
+        public Builder users(int users) { this.users = positive(users, "Users"); return this; }
+        public Builder operations(long operations) { this.operations = positive(operations, "Operations"); return this; }
+        public Builder shards(int shards) { this.shards = positive(shards, "Shards"); return this; }
+        // Seeds the catalogue (credits and which courses are hot); users draw from their own random streams.
+        public Builder seed(long seed) { this.seed = seed; return this; }
+        
+        // 0 is uniform; around 1 a handful of courses draw most requests.
+        public Builder zipfExponent(double exponent) {
+            if (!(exponent >= 0)) throw new IllegalArgumentException("Zipf exponent cannot be negative");
+            this.zipfExponent = exponent;
+            return this;
+        }
+        
+        public Builder mix(Operation operation, int weight) {
+            if (weight < 0) throw new IllegalArgumentException("Weight cannot be negative");
+            mix.put(operation, weight);
+            return this;
+        }
+        
+        private static <N extends Number> N positive(N value, String name) {
+            if (value.longValue() <= 0) throw new IllegalArgumentException(name + " must be positive");
+            return value;
+        }
+        
+        public RegistrationLoadTest build() { return new RegistrationLoadTest(this); }
+    }
+    
+    public LoadTestReport run() throws InterruptedException {
+        CourseService courseService = new CourseService();
+        List<String> courseIds = createCourses(courseService);
+        try (StudentService studentService = new StudentService(courseService, shards)) {
+            createStudents(studentService);
+            EnrollmentService enrollmentService = new EnrollmentService(studentService, courseService);
+            Users workload = new Users(studentService, enrollmentService, courseIds);
+            
+            CountDownLatch start = new CountDownLatch(1);
+            AtomicLong remaining = new AtomicLong(operations);
+            long started;
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (int i = 0; i < users; i++) {
+                    executor.submit(() -> {
+                        start.await();
+                        while (remaining.getAndDecrement() > 0) workload.perform();
+                        return null;
+                    });
+                }
+                started = System.nanoTime();
+                start.countDown();
+            }
+            Duration elapsed = Duration.ofNanos(System.nanoTime() - started);
+            
+            return new LoadTestReport(users, shards, elapsed, workload.stats(),
+                verify(studentService, courseService, enrollmentService));
+        }
+    }
+    
+    // Every course sits in the current fall term, so enrollments compete for one credit budget.
+    // Codes run LTA000 to LTZ999 to stay valid course codes.
+    private List<String> createCourses(CourseService courseService) {
+        Random random = new Random(seed);
+        int year = Year.now().getValue();
+        List<String> codes = new ArrayList<>(courses);
+        for (int i = 0; i < courses; i++) {
+            String code = String.format("LT%c%03d", (char) ('A' + i / 1000), i % 1000);
+            courseService.addCourse(new Course.Builder()
+                .code(code)
+                .title("Load Test Course " + i)
+                .credits(1 + random.nextInt(4))
+                .instructorId("I" + (i % 50))
+                .semester(Semester.FALL)
+                .academicYear(year)
+                .department("DEPT" + (i % 10))
+                .build());
+            codes.add(code);
+        }
+        // Zipf rank 0 is the hottest course; shuffling keeps popularity independent of code order.
+        Collections.shuffle(codes, random);
+        return codes;
+    }
+    
+    private void createStudents(StudentService studentService) {
+        for (int i = 0; i < students; i++) {
+            studentService.addStudent(new Student.Builder()
+                .id(String.format("S%06d", i))
+                .regNo("REG" + i)
+                .fullName("Load Student " + i)
+                .email("ls" + i + "@loadtest.edu")
+                .build());
+        }
+    }
+    
+    private final class Users {
+        private final StudentService studentService;
+        private final EnrollmentService enrollmentService;
+        private final List<String> courseIds;
+        private final double[] cumulative;
+        private final Operation[] operationOf;
+        private final Map<Operation, LatencyHistogram> latencies = new EnumMap<>(Operation.class);
+        private final Map<Operation, Map<String, LongAdder>> failures = new EnumMap<>(Operation.class);
+        
+        Users(StudentService studentService, EnrollmentService enrollmentService, List<String> courseIds) {
+            this.studentService = studentService;
+            this.enrollmentService = enrollmentService;
+            this.courseIds = courseIds;
+            
+            this.cumulative = new double[courseIds.size()];
+            double sum = 0;
+            for (int rank = 0; rank < cumulative.length; rank++) {
+                sum += 1 / Math.pow(rank + 1, zipfExponent);
+                cumulative[rank] = sum;
+            }
+            for (int rank = 0; rank < cumulative.length; rank++) cumulative[rank] /= sum;
+            
+            List<Operation> weighted = new ArrayList<>();
+            mix.forEach((operation, weight) -> weighted.addAll(Collections.nCopies(weight, operation)));
+            this.operationOf = weighted.toArray(Operation[]::new);
+            for (Operation operation : Operation.values()) {
+                latencies.put(operation, new LatencyHistogram());
+                failures.put(operation, new ConcurrentHashMap<>());
+            }
+        }
+        
+        private String hotCourse(ThreadLocalRandom random) {
+            int rank = Arrays.binarySearch(cumulative, random.nextDouble());
+            return courseIds.get(Math.min(rank < 0 ? -rank - 1 : rank, cumulative.length - 1));
+        }
+        
+        private String randomStudent(ThreadLocalRandom random) {
+            return String.format("S%06d", random.nextInt(students));
+        }
+        
+        // Grading and dropping target one of the student's current courses when there is one.
+        private String enrolledOrHotCourse(String studentId, ThreadLocalRandom random) {
+            List<String> enrolled = studentService.snapshot().get(studentId)
+                .map(student -> List.copyOf(student.getEnrolledCourses()))
+                .orElse(List.of());
+            return enrolled.isEmpty() ? hotCourse(random) : enrolled.get(random.nextInt(enrolled.size()));
+        }
+        
+        void perform() {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            Operation operation = operationOf[random.nextInt(operationOf.length)];
+            String studentId = randomStudent(random);
+            String courseId = switch (operation) {
+                case ENROLL, ROSTER -> hotCourse(random);
+                case GRADE, UNENROLL -> enrolledOrHotCourse(studentId, random);
+            };
+            
+            long started = System.nanoTime();
+            try {
+                switch (operation) {
+                    case ENROLL -> studentService.enrollStudentInCourse(studentId, courseId);
+                    case GRADE -> studentService.recordGrade(studentId, courseId, random.nextInt(1001) / 10.0);
+                    case ROSTER -> enrollmentService.getStudentsInCourse(courseId);
+                    case UNENROLL -> studentService.unenrollStudentFromCourse(studentId, courseId);
+                }
+            } catch (RuntimeException e) {
+                failures.get(operation).computeIfAbsent(e.getClass().getSimpleName(), _ -> new LongAdder()).increment();
+            } finally {
+                latencies.get(operation).record(System.nanoTime() - started);
+            }
+        }
+        
+        Map<Operation, LoadTestReport.OperationStats> stats() {
+            Map<Operation, LoadTestReport.OperationStats> stats = new EnumMap<>(Operation.class);
+            latencies.forEach((operation, histogram) -> {
+                if (histogram.count() == 0) return;
+                Map<String, Long> failed = new TreeMap<>();
+                failures.get(operation).forEach((exception, count) -> failed.put(exception, count.sum()));
+                stats.put(operation, new LoadTestReport.OperationStats(histogram.count(),
+                    histogram.percentile(50), histogram.percentile(90), histogram.percentile(99),
+                    histogram.percentile(99.9), histogram.max(), Collections.unmodifiableMap(failed)));
+            });
+            return Collections.unmodifiableMap(stats);
+        }
+    }
+    
+    private static List<String> verify(StudentService studentService, CourseService courseService,
+                                       EnrollmentService enrollmentService) {
+        int maxCredits = AppConfig.getInstance().getMaxCreditsPerSemester();
+        Snapshot<Course> catalogue = courseService.snapshot();
+        List<String> violations = new ArrayList<>();
+        Map<String, Set<String>> rosters = new HashMap<>();
+        
+        studentService.snapshot().stream().forEach(student -> {
+            Map<AcademicTerm, Integer> credits = new HashMap<>();
+            for (String courseId : student.getEnrolledCourses()) {
+                rosters.computeIfAbsent(courseId, _ -> new HashSet<>()).add(student.getId());
+                catalogue.get(courseId).ifPresentOrElse(
+                    course -> credits.merge(course.getTerm(), course.getCredits(), Integer::sum),
+                    () -> violations.add(student.getId() + " is enrolled in unknown course " + courseId));
+            }
+            credits.forEach((term, total) -> {
+                if (total > maxCredits) {
+                    violations.add(String.format("%s has %d credits in %s, limit is %d", student.getId(), total, term, maxCredits));
+                }
+                int ledger = studentService.getTermCredits(student.getId(), term);
+                if (ledger != total) {
+                    violations.add(String.format("%s ledger shows %d credits in %s, enrollments add up to %d",
+                        student.getId(), ledger, term, total));
+                }
+            });
+        });
+        
+        catalogue.stream().forEach(course -> {
+            Set<String> expected = rosters.getOrDefault(course.getCode(), Set.of());
+            Set<String> roster = new HashSet<>(enrollmentService.getStudentsInCourse(course.getCode()));
+            if (!roster.equals(expected)) {
+                violations.add(String.format("Roster of %s lists %d students, %d are enrolled",
+                    course.getCode(), roster.size(), expected.size()));
+            }
+        });
+        return violations;
+    }
+    
+    public static void main(String[] args) throws InterruptedException {
+        Builder builder = new Builder();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (eq < 0) throw new IllegalArgumentException("Expected key=value: " + arg);
+            String value = arg.substring(eq + 1).trim();
+            switch (arg.substring(0, eq).trim()) {
+                case "students" -> builder.students(Integer.parseInt(value));
+                case "courses" -> builder.courses(Integer.parseInt(value));
+                case "users" -> builder.users(Integer.parseInt(value));
+                case "operations" -> builder.operations(Long.parseLong(value));
+                case "shards" -> builder.shards(Integer.parseInt(value));
+                case "zipf" -> builder.zipfExponent(Double.parseDouble(value));
+                case "seed" -> builder.seed(Long.parseLong(value));
+                case "mix" -> {
+                    String[] weights = value.split(",");
+                    if (weights.length != Operation.values().length) {
+                        throw new IllegalArgumentException("mix needs one weight per operation: enroll,grade,roster,unenroll");
+                    }
+                    for (Operation operation : Operation.values()) {
+                        builder.mix(operation, Integer.parseInt(weights[operation.ordinal()].trim()));
+                    }
+                }
+                default -> throw new IllegalArgumentException("Unknown option: " + arg);
+            }
+        }
+        
+        LoadTestReport report = builder.build().run();
+        System.out.println(report);
+        System.exit(report.passed() ? 0 : 1);
+    }
+}
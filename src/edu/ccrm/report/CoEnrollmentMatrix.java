@@ -0,0 +1,172 @@
+package edu.ccrm.report;
+
+import edu.ccrm.domain.Student;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.*;
+
+/**
+ * Symmetric course x course matrix of how many students take both courses. Only
+ * non-zero cells are stored: each unordered pair of dense course indices is packed
+ * into one long key of an open-addressing table with parallel int counts, so a
+ * partial matrix per fork-join leaf costs no boxing and merges by a linear scan.
+ */
+public class CoEnrollmentMatrix {
+    private static final long EMPTY = 0; // (0, 0) is the diagonal, which is never stored
+    
+    private final List<String> codes;
+    private final Map<String, Integer> index;
+    private long[] keys = new long[64];
+    private int[] counts = new int[64];
+    private int size;
+    
+    CoEnrollmentMatrix(List<String> codes, Map<String, Integer> index) {
+        this.codes = codes;
+        this.index = index;
+    }
+    
+    void add(Student student) {
+        Set<String> enrolled = student.getEnrolledCourses();
+        if (enrolled.size() < 2) return;
+        int[] courses = new int[enrolled.size()];
+        int n = 0;
+        for (String courseId : enrolled) {
+            Integer course = index.get(courseId);
+            if (course != null) courses[n++] = course;
+        }
+        Arrays.sort(courses, 0, n);
+        for (int i = 0; i < n; i++) {
+            for (int j = i + 1; j < n; j++) {
+                increment(pack(courses[i], courses[j]), 1);
+            }
+        }
+    }
+    
+    CoEnrollmentMatrix merge(CoEnrollmentMatrix other) {
+        if (other.size > size) return other.merge(this);
+        for (int slot = 0; slot < other.keys.length; slot++) {
+            if (other.keys[slot] != EMPTY) increment(other.keys[slot], other.counts[slot]);
+        }
+        return this;
+    }
+    
+    private static long pack(int low, int high) {
+        return (long) low << 32 | high;
+    }
+    
+    private static int slot(long key, int mask) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+    
+    private void increment(long key, int by) {
+        int mask = keys.length - 1;
+        int slot = slot(key, mask);
+        while (keys[slot] != EMPTY && keys[slot] != key) slot = (slot + 1) & mask;
+        if (keys[slot] == EMPTY) {
+            keys[slot] = key;
+            if (++size * 2 > keys.length) {
+                counts[slot] = by;
+                grow();
+                return;
+            }
+        }
+        counts[slot] += by;
+    }
+    
+    private void grow() {
+        long[] oldKeys = keys;
+        int[] oldCounts = counts;
+        keys = new long[oldKeys.length * 2];
+        counts = new int[oldKeys.length * 2];
+        int mask = keys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] == EMPTY) continue;
+            int slot = slot(oldKeys[i], mask);
+            while (keys[slot] != EMPTY) slot = (slot + 1) & mask;
+            keys[slot] = oldKeys[i];
+            counts[slot] = oldCounts[i];
+        }
+    }
+    
+    public int getCourseCount() { return codes.size(); }
+    
+    // Non-zero cells of the upper triangle.
+    public int getPairCount() { return size; }
+    
+    public int count(String course, String other) {
+        Integer a = index.get(course);
+        Integer b = index.get(other);
+        if (a == null || b == null || a.equals(b)) return 0;
+        return find(pack(Math.min(a, b), Math.max(a, b)));
+    }
+    
+    private int find(long key) {
+        int mask = keys.length - 1;
+        for (int slot = slot(key, mask); keys[slot] != EMPTY; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) return counts[slot];
+        }
+        return 0;
+    }
+    
+    // The n courses most often taken together with each course, in one pass over the cells.
+    public Map<String, List<CoursePair>> topPairs(int n) {
+        List<TopK<CoursePair>> tops = new ArrayList<>(codes.size());
+        for (int i = 0; i < codes.size(); i++) tops.add(null);
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (keys[slot] == EMPTY) continue;
+            int low = (int) (keys[slot] >>> 32);
+            int high = (int) keys[slot];
+            offer(tops, n, low, high, counts[slot]);
+            offer(tops, n, high, low, counts[slot]);
+        }
+        Map<String, List<CoursePair>> result = new TreeMap<>();
+        for (int i = 0; i < tops.size(); i++) {
+            if (tops.get(i) != null) result.put(codes.get(i), tops.get(i).toSortedList());
+        }
+        return result;
+    }
+    
+    private void offer(List<TopK<CoursePair>> tops, int n, int course, int other, int students) {
+        TopK<CoursePair> top = tops.get(course);
+        if (top == null) tops.set(course, top = new TopK<>(n, CoursePair.ORDER));
+        top.offer(new CoursePair(codes.get(course), codes.get(other), students));
+    }
+    
+    public List<CoursePair> topPairs(String course, int n) {
+        Integer row = index.get(course);
+        if (row == null) return List.of();
+        TopK<CoursePair> top = new TopK<>(n, CoursePair.ORDER);
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (keys[slot] == EMPTY) continue;
+            int low = (int) (keys[slot] >>> 32);
+            int high = (int) keys[slot];
+            if (low == row) top.offer(new CoursePair(course, codes.get(high), counts[slot]));
+            else if (high == row) top.offer(new CoursePair(course, codes.get(low), counts[slot]));
+        }
+        return top.toSortedList();
+    }
+    
+    /**
+     * Matrix Market coordinate format (symmetric, integer): course codes are listed
+     * in comments by their 1-based index, followed by one "row column count" line per
+     * non-zero cell of the lower triangle.
+     */
+    public void writeMatrixMarket(Writer out) throws IOException {
+        out.write("%%MatrixMarket matrix coordinate integer symmetric\n");
+        for (int i = 0; i < codes.size(); i++) {
+            out.write("% " + (i + 1) + " " + codes.get(i) + "\n");
+        }
+        out.write(codes.size() + " " + codes.size() + " " + size + "\n");
+        long[] cells = new long[size];
+        int n = 0;
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (keys[slot] != EMPTY) cells[n++] = keys[slot];
+        }
+        Arrays.sort(cells); // column-major: the low index is the column
+        for (long cell : cells) {
+            out.write(((int) cell + 1) + " " + ((int) (cell >>> 32) + 1) + " " + find(cell) + "\n");
+        }
+    }
+}
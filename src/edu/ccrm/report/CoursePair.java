@@ -0,0 +1,10 @@
+package edu.ccrm.report;
+
+import java.util.Comparator;
+
+public record CoursePair(String course, String other, int students) {
+    // Ascending, so the weakest pair sits at the head of a min-heap; ties broken by code.
+    public static final Comparator<CoursePair> ORDER = Comparator
+        .comparingInt(CoursePair::students)
+        .thenComparing(CoursePair::other, Comparator.reverseOrder());
+}
@@ -0,0 +1,192 @@
+package edu.ccrm.report;
+
+import edu.ccrm.domain.ChangeType;
+import edu.ccrm.domain.Course;
+import edu.ccrm.domain.Student;
+import edu.ccrm.service.CourseService;
+import edu.ccrm.service.Snapshot;
+import edu.ccrm.service.StudentService;
+
+import java.util.*;
+
+/**
+ * Per-course, per-department and per-term top-k boards kept current from grade
+ * events. A grade can only move the three boards of its course; improvements are
+ * applied in place, while a drop (or unenrollment) of a board member marks that
+ * board for a lazy rebuild, since the replacement may be anyone outside the top k.
+ * The monitor only guards the boards: events read the changed student before taking
+ * it, and rebuilds read snapshots outside it, so no StudentService lock is ever
+ * acquired while it is held. Events that arrive during a rebuild are replayed onto
+ * its result.
+ */
+public class LiveRankings {
+    private final StudentService studentService;
+    private final CourseService courseService;
+    private final ReportEngine reportEngine;
+    private final int k;
+    private final Map<RankingGroup, Board> boards = new HashMap<>();
+    private final Set<RankingGroup> dirty = new HashSet<>();
+    private boolean stale = true;
+    // Bumped by every invalidation, so a full rebuild that raced one is not installed.
+    private long invalidations;
+    private int rebuilding;
+    // Student -> courses whose events arrived while a rebuild was in flight.
+    private final Map<String, Set<String>> pending = new LinkedHashMap<>();
+    
+    private static class Board {
+        final TreeSet<RankedStudent> ordered = new TreeSet<>(RankedStudent.ORDER);
+        final Map<String, RankedStudent> members = new HashMap<>();
+        
+        Board(List<RankedStudent> initial) {
+            initial.forEach(this::add);
+        }
+        
+        void add(RankedStudent entry) {
+            ordered.add(entry);
+            members.put(entry.studentId(), entry);
+        }
+        
+        void remove(RankedStudent entry) {
+            ordered.remove(entry);
+            members.remove(entry.studentId());
+        }
+    }
+    
+    public LiveRankings(StudentService studentService, CourseService courseService, ReportEngine reportEngine, int k) {
+        this.studentService = studentService;
+        this.courseService = courseService;
+        this.reportEngine = reportEngine;
+        this.k = k;
+        studentService.addChangeListener(this::onStudentChange);
+        courseService.addChangeListener(this::onCourseChange);
+    }
+    
+    public int getK() { return k; }
+    
+    public synchronized void invalidateAll() {
+        stale = true;
+        invalidations++;
+    }
+    
+    // Course edits (department, term) can move every student between boards.
+    private synchronized void onCourseChange(String entityType, String entityId, ChangeType type, String detail) {
+        if (type == ChangeType.UPDATED) {
+            stale = true;
+            invalidations++;
+        }
+    }
+    
+    // A created student (an import) may arrive with grades in any of its courses.
+    private void onStudentChange(String entityType, String entityId, ChangeType type, String detail) {
+        Optional<Student> student = switch (type) {
+            case GRADE_RECORDED, UNENROLLED, CREATED -> studentService.getStudent(entityId);
+            default -> Optional.empty();
+        };
+        Set<String> courseIds = switch (type) {
+            case GRADE_RECORDED -> Set.of(detail.substring(0, detail.lastIndexOf('=')));
+            case UNENROLLED -> Set.of(detail);
+            case CREATED -> student.map(s -> Set.copyOf(s.getEnrolledCourses())).orElse(Set.of());
+            default -> Set.of();
+        };
+        if (!courseIds.isEmpty()) apply(entityId, student, courseIds);
+    }
+    
+    private void apply(String studentId, Optional<Student> student, Set<String> courseIds) {
+        Snapshot<Course> courses = courseService.snapshot();
+        Map<RankingGroup, Double> values = student
+            .map(s -> RankingGroup.valuesFor(s, courses))
+            .orElse(Map.of());
+        String fullName = student.map(Student::getFullName).orElse(studentId);
+        
+        Set<RankingGroup> affected = new LinkedHashSet<>();
+        for (String courseId : courseIds) {
+            affected.add(RankingGroup.course(courseId));
+            courses.get(courseId).ifPresent(course -> {
+                affected.add(RankingGroup.department(course));
+                affected.add(RankingGroup.term(course.getTerm()));
+            });
+        }
+        synchronized (this) {
+            if (rebuilding > 0) {
+                pending.computeIfAbsent(studentId, _ -> new HashSet<>()).addAll(courseIds);
+                return;
+            }
+            if (stale) return;
+            for (RankingGroup group : affected) {
+                update(group, studentId, fullName, values.get(group));
+            }
+        }
+    }
+    
+    private void update(RankingGroup group, String studentId, String fullName, Double value) {
+        if (dirty.contains(group)) return;
+        Board board = boards.computeIfAbsent(group, _ -> new Board(List.of()));
+        RankedStudent current = board.members.get(studentId);
+        
+        if (current != null) {
+            board.remove(current);
+            if (value == null || value < current.value()) {
+                // Someone outside the board may now belong in it.
+                if (board.ordered.size() + 1 >= k) dirty.add(group);
+                else if (value != null) board.add(new RankedStudent(studentId, fullName, value));
+                return;
+            }
+        }
+        if (value == null) return;
+        
+        RankedStudent entry = new RankedStudent(studentId, fullName, value);
+        if (board.ordered.size() < k) {
+            board.add(entry);
+        } else if (RankedStudent.ORDER.compare(entry, board.ordered.first()) > 0) {
+            board.remove(board.ordered.first());
+            board.add(entry);
+        }
+    }
+    
+    public List<RankedStudent> top(RankingGroup group) {
+        boolean all;
+        long seen;
+        synchronized (this) {
+            if (!stale && !dirty.contains(group)) return copy(group);
+            all = stale;
+            seen = invalidations;
+            rebuilding++;
+        }
+        Map<RankingGroup, List<RankedStudent>> rebuilt = null;
+        Map<String, Set<String>> replay = Map.of();
+        try {
+            rebuilt = all
+                ? reportEngine.rankings(studentService.snapshot(), courseService.snapshot(), k)
+                : Map.of(group, reportEngine.ranking(studentService.snapshot(), courseService.snapshot(), group, k));
+        } finally {
+            synchronized (this) {
+                if (rebuilt != null && !(all && seen != invalidations)) install(rebuilt, all);
+                if (--rebuilding == 0 && !pending.isEmpty()) {
+                    replay = new LinkedHashMap<>(pending);
+                    pending.clear();
+                }
+            }
+        }
+        replay.forEach((studentId, courseIds) -> apply(studentId, studentService.getStudent(studentId), courseIds));
+        synchronized (this) {
+            return copy(group);
+        }
+    }
+    
+    private void install(Map<RankingGroup, List<RankedStudent>> rebuilt, boolean all) {
+        if (all) {
+            boards.clear();
+            dirty.clear();
+            stale = false;
+        }
+        rebuilt.forEach((group, entries) -> {
+            boards.put(group, new Board(entries));
+            dirty.remove(group);
+        });
+    }
+    
+    private List<RankedStudent> copy(RankingGroup group) {
+        Board board = boards.get(group);
+        return board == null ? List.of() : new ArrayList<>(board.ordered.descendingSet());
+    }
+}
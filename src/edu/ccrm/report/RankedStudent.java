@@ -0,0 +1,10 @@
+package edu.ccrm.report;
+
+import java.util.Comparator;
+
+public record RankedStudent(String studentId, String fullName, double value) {
+    // Ascending, so the weakest entry sits at the head of a min-heap; ties broken by ID.
+    public static final Comparator<RankedStudent> ORDER = Comparator
+        .comparingDouble(RankedStudent::value)
+        .thenComparing(RankedStudent::studentId, Comparator.reverseOrder());
+}
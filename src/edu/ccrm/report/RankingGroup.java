@@ -0,0 +1,46 @@
+package edu.ccrm.report;
+
+import edu.ccrm.domain.AcademicTerm;
+import edu.ccrm.domain.Course;
+import edu.ccrm.domain.Grade;
+import edu.ccrm.domain.Student;
+import edu.ccrm.service.Snapshot;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// A ranking board: students in one course (by score), department (by average score)
+// or term (by GPA over that term's courses).
+public record RankingGroup(Type type, String name) {
+    public enum Type { COURSE, DEPARTMENT, TERM }
+    
+    public static RankingGroup course(String code) { return new RankingGroup(Type.COURSE, code); }
+    public static RankingGroup department(String department) { return new RankingGroup(Type.DEPARTMENT, department); }
+    public static RankingGroup term(AcademicTerm term) { return new RankingGroup(Type.TERM, term.toString()); }
+    
+    static RankingGroup department(Course course) {
+        return department(course.getDepartment() != null ? course.getDepartment() : "N/A");
+    }
+    
+    // Every group a student currently ranks in, with the student's value for it.
+    static Map<RankingGroup, Double> valuesFor(Student student, Snapshot<Course> courses) {
+        Map<RankingGroup, double[]> sums = new HashMap<>();
+        Map<RankingGroup, Double> values = new HashMap<>();
+        for (String courseId : student.getEnrolledCourses()) {
+            Double score = student.getGrade(courseId);
+            if (score == null) continue;
+            values.put(course(courseId), score);
+            courses.get(courseId).ifPresent(course -> {
+                double[] dept = sums.computeIfAbsent(department(course), _ -> new double[2]);
+                dept[0] += score;
+                dept[1]++;
+                Grade grade = student.getLetterGrade(courseId);
+                double[] term = sums.computeIfAbsent(term(course.getTerm()), _ -> new double[2]);
+                term[0] += grade.getPoints();
+                term[1]++;
+            });
+        }
+        sums.forEach((group, sum) -> values.put(group, sum[0] / sum[1]));
+        return values;
+    }
+}
@@ -0,0 +1,220 @@
+package edu.ccrm.report;
+
+import edu.ccrm.domain.Course;
+import edu.ccrm.domain.Student;
+import edu.ccrm.service.Snapshot;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
+import java.util.function.Supplier;
+
+/**
+ * Runs reports as fork-join tasks over snapshot spliterators: each leaf task
+ * folds its slice into a private partial aggregate and parents merge the
+ * results. All reports share one pool.
+ */
+public class ReportEngine implements AutoCloseable {
+    private static final int LEAF_SIZE = 4096;
+    static final String[] GPA_BANDS = { "A (9.0+)", "B (8.0-8.9)", "C (7.0-7.9)", "D (6.0-6.9)", "F (<6.0)" };
+    
+    private final ForkJoinPool pool;
+    
+    public ReportEngine(int parallelism) {
+        this.pool = new ForkJoinPool(Math.max(1, parallelism));
+    }
+    
+    public int getParallelism() { return pool.getParallelism(); }
+    
+    public <T, A> A aggregate(Spliterator<T> source, Supplier<A> identity,
+                              BiConsumer<A, ? super T> accumulator, BinaryOperator<A> combiner) {
+        return pool.invoke(new AggregateTask<>(source, identity, accumulator, combiner));
+    }
+    
+    // ForkJoinTask is Serializable, but these tasks never leave the pool.
+    @SuppressWarnings("serial")
+    private static class AggregateTask<T, A> extends RecursiveTask<A> {
+        private final Spliterator<T> source;
+        private final Supplier<A> identity;
+        private final BiConsumer<A, ? super T> accumulator;
+        private final BinaryOperator<A> combiner;
+        
+        AggregateTask(Spliterator<T> source, Supplier<A> identity,
+                      BiConsumer<A, ? super T> accumulator, BinaryOperator<A> combiner) {
+            this.source = source;
+            this.identity = identity;
+            this.accumulator = accumulator;
+            this.combiner = combiner;
+        }
+        
+        @Override
+        protected A compute() {
+            if (source.estimateSize() > LEAF_SIZE) {
+                Spliterator<T> prefix = source.trySplit();
+                if (prefix != null) {
+                    AggregateTask<T, A> left = new AggregateTask<>(prefix, identity, accumulator, combiner);
+                    left.fork();
+                    A right = compute();
+                    return combiner.apply(left.join(), right);
+                }
+            }
+            A partial = identity.get();
+            source.forEachRemaining(item -> accumulator.accept(partial, item));
+            return partial;
+        }
+    }
+    
+    // Counts per GPA band, in GPA_BANDS order.
+    public long[] gpaDistribution(Snapshot<Student> students) {
+        return aggregate(students.spliterator(),
+            () -> new long[GPA_BANDS.length],
+            (counts, student) -> counts[gpaBand(student.calculateGPA())]++,
+            (a, b) -> {
+                for (int i = 0; i < a.length; i++) a[i] += b[i];
+                return a;
+            });
+    }
+    
+    static int gpaBand(double gpa) {
+        if (gpa >= 9) return 0;
+        if (gpa >= 8) return 1;
+        if (gpa >= 7) return 2;
+        if (gpa >= 6) return 3;
+        return 4;
+    }
+    
+    public SortedMap<String, List<Course>> coursesByDepartment(Snapshot<Course> courses) {
+        return aggregate(courses.spliterator(),
+            TreeMap::new,
+            (groups, course) -> groups.computeIfAbsent(departmentOf(course), _ -> new ArrayList<>()).add(course),
+            (a, b) -> {
+                b.forEach((dept, list) -> a.merge(dept, list, (x, y) -> { x.addAll(y); return x; }));
+                return a;
+            });
+    }
+    
+    private static String departmentOf(Course course) {
+        return course.getDepartment() != null ? course.getDepartment() : "N/A";
+    }
+    
+    public List<Course> coursesByInstructor(Snapshot<Course> courses, String instructorId) {
+        List<Course> result = aggregate(courses.spliterator(),
+            ArrayList::new,
+            (list, course) -> { if (instructorId.equals(course.getInstructorId())) list.add(course); },
+            (a, b) -> { a.addAll(b); return a; });
+        result.sort(Comparator.comparing(Course::getCode));
+        return result;
+    }
+    
+    public List<RankedStudent> topStudentsByGpa(Snapshot<Student> students, int k) {
+        return aggregate(students.spliterator(),
+            () -> new TopK<>(k, RankedStudent.ORDER),
+            (top, student) -> top.offer(new RankedStudent(student.getId(), student.getFullName(), student.calculateGPA())),
+            TopK::merge).toSortedList();
+    }
+    
+    // Top k of every course, department and term in a single pass over the students.
+    public Map<RankingGroup, List<RankedStudent>> rankings(Snapshot<Student> students, Snapshot<Course> courses, int k) {
+        Map<RankingGroup, TopK<RankedStudent>> boards = aggregate(students.spliterator(),
+            HashMap::new,
+            (partial, student) -> RankingGroup.valuesFor(student, courses).forEach((group, value) ->
+                partial.computeIfAbsent(group, _ -> new TopK<>(k, RankedStudent.ORDER))
+                    .offer(new RankedStudent(student.getId(), student.getFullName(), value))),
+            (a, b) -> {
+                b.forEach((group, top) -> a.merge(group, top, TopK::merge));
+                return a;
+            });
+        Map<RankingGroup, List<RankedStudent>> result = new HashMap<>();
+        boards.forEach((group, top) -> result.put(group, top.toSortedList()));
+        return result;
+    }
+    
+    public List<RankedStudent> ranking(Snapshot<Student> students, Snapshot<Course> courses, RankingGroup group, int k) {
+        return aggregate(students.spliterator(),
+            () -> new TopK<>(k, RankedStudent.ORDER),
+            (top, student) -> {
+                Double value = RankingGroup.valuesFor(student, courses).get(group);
+                if (value != null) top.offer(new RankedStudent(student.getId(), student.getFullName(), value));
+            },
+            TopK::merge).toSortedList();
+    }
+    
+    // Course indices follow code order, so exports are stable between runs.
+    public CoEnrollmentMatrix coEnrollment(Snapshot<Student> students, Snapshot<Course> courses) {
+        List<String> codes = courses.stream().map(Course::getCode).sorted().toList();
+        Map<String, Integer> index = new HashMap<>(codes.size() * 2);
+        for (int i = 0; i < codes.size(); i++) index.put(codes.get(i), i);
+        return aggregate(students.spliterator(),
+            () -> new CoEnrollmentMatrix(codes, index),
+            CoEnrollmentMatrix::add,
+            CoEnrollmentMatrix::merge);
+    }
+    
+    public void writeCoEnrollment(CoEnrollmentMatrix matrix, int n, Writer out) throws IOException {
+        out.write("\n🔀 MOST COMMON CO-ENROLLMENTS\n");
+        out.write("-".repeat(50) + "\n");
+        for (Map.Entry<String, List<CoursePair>> entry : matrix.topPairs(n).entrySet()) {
+            out.write(String.format("%-10s:", entry.getKey()));
+            for (CoursePair pair : entry.getValue()) {
+                out.write(String.format(" %s (%d)", pair.other(), pair.students()));
+            }
+            out.write("\n");
+        }
+    }
+    
+    public void writeGpaDistribution(Snapshot<Student> students, Writer out) throws IOException {
+        long[] counts = gpaDistribution(students);
+        out.write("\n📊 GPA DISTRIBUTION\n");
+        out.write("-".repeat(30) + "\n");
+        for (int i = 0; i < GPA_BANDS.length; i++) {
+            if (counts[i] > 0) out.write(String.format("%-12s: %d students%n", GPA_BANDS[i], counts[i]));
+        }
+    }
+    
+    public void writeCoursesByDepartment(Snapshot<Course> courses, Writer out) throws IOException {
+        SortedMap<String, List<Course>> groups = coursesByDepartment(courses);
+        out.write("\n🏫 COURSES BY DEPARTMENT\n");
+        out.write("-".repeat(40) + "\n");
+        try {
+            groups.forEach((dept, list) -> {
+                list.sort(Comparator.comparing(Course::getCode));
+                write(out, String.format("%-20s: %d courses%n", dept, list.size()));
+                list.forEach(course -> write(out, "  • " + course.getCode() + " - " + course.getTitle() + "\n"));
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+    
+    public void writeCoursesByInstructor(Snapshot<Course> courses, String instructorId, Writer out) throws IOException {
+        List<Course> list = coursesByInstructor(courses, instructorId);
+        if (list.isEmpty()) {
+            out.write("📭 No courses found for instructor: " + instructorId + "\n");
+            return;
+        }
+        out.write("\n👨‍🏫 COURSES TAUGHT BY " + instructorId + "\n");
+        out.write("-".repeat(50) + "\n");
+        for (Course course : list) {
+            out.write("• " + course.getCode() + " - " + course.getTitle() +
+                " (" + course.getCredits() + " credits)\n");
+        }
+    }
+    
+    private static void write(Writer out, String text) {
+        try {
+            out.write(text);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    @Override
+    public void close() {
+        pool.shutdown();
+    }
+}
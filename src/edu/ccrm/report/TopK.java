@@ -0,0 +1,43 @@
+package edu.ccrm.report;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+// Bounded min-heap keeping the k largest items seen: O(log k) per offer.
+public class TopK<T> {
+    private final int k;
+    private final Comparator<? super T> order;
+    private final PriorityQueue<T> heap;
+    
+    public TopK(int k, Comparator<? super T> order) {
+        if (k <= 0) throw new IllegalArgumentException("k must be positive");
+        this.k = k;
+        this.order = order;
+        this.heap = new PriorityQueue<>(Math.min(k, 1024) + 1, order);
+    }
+    
+    public void offer(T item) {
+        if (heap.size() < k) {
+            heap.add(item);
+        } else if (order.compare(item, heap.peek()) > 0) {
+            heap.poll();
+            heap.add(item);
+        }
+    }
+    
+    public TopK<T> merge(TopK<T> other) {
+        other.heap.forEach(this::offer);
+        return this;
+    }
+    
+    public int size() { return heap.size(); }
+    
+    // Best first.
+    public List<T> toSortedList() {
+        List<T> items = new ArrayList<>(heap);
+        items.sort(order.reversed());
+        return items;
+    }
+}
@@ -0,0 +1,76 @@
+package edu.ccrm.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Record IDs ordered by their latest change. Stamps come from a clock shared by all
+// lanes: microseconds since the epoch, bumped where needed to stay strictly increasing.
+// Each lane has a single writer (a student shard, or the course service monitor), so
+// touch() takes no lock; watermark() tells readers how far every lane is complete.
+final class ChangeIndex {
+    private static final long IDLE = Long.MAX_VALUE;
+    
+    private final AtomicLong clock = new AtomicLong();
+    private final Lane[] lanes;
+    
+    private static final class Lane {
+        final ConcurrentSkipListMap<Long, String> byStamp = new ConcurrentSkipListMap<>();
+        final Map<String, Long> stampById = new HashMap<>();
+        volatile long pending = IDLE;
+    }
+    
+    ChangeIndex(int laneCount) {
+        this.lanes = new Lane[laneCount];
+        for (int i = 0; i < laneCount; i++) lanes[i] = new Lane();
+    }
+    
+    static long stampAt(long epochMillis) {
+        return epochMillis * 1000;
+    }
+    
+    void touch(int laneIndex, String id) {
+        Lane lane = lanes[laneIndex];
+        // Announced before the stamp is drawn, so no reader's watermark can pass it.
+        lane.pending = clock.get();
+        long now = stampAt(System.currentTimeMillis());
+        long stamp = clock.updateAndGet(last -> Math.max(last + 1, now));
+        Long previous = lane.stampById.put(id, stamp);
+        if (previous != null) lane.byStamp.remove(previous);
+        lane.byStamp.put(stamp, id);
+        lane.pending = IDLE;
+    }
+    
+    // Every change stamped at or below the result is visible to a scan started afterwards.
+    long watermark() {
+        long now = stampAt(System.currentTimeMillis());
+        long high = clock.updateAndGet(last -> Math.max(last, now));
+        for (Lane lane : lanes) {
+            high = Math.min(high, lane.pending);
+        }
+        return high;
+    }
+    
+    // IDs changed in (after, upTo], in update order.
+    List<String> changedBetween(long after, long upTo) {
+        List<Map.Entry<Long, String>> changes = new ArrayList<>();
+        if (upTo > after) {
+            for (Lane lane : lanes) {
+                changes.addAll(lane.byStamp.subMap(after, false, upTo, true).entrySet());
+            }
+        }
+        if (lanes.length > 1) changes.sort(Map.Entry.comparingByKey());
+        List<String> ids = new ArrayList<>(changes.size());
+        changes.forEach(change -> ids.add(change.getValue()));
+        return ids;
+    }
+    
+    int size() {
+        int size = 0;
+        for (Lane lane : lanes) size += lane.byStamp.size();
+        return size;
+    }
+}
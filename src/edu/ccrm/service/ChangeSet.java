@@ -0,0 +1,14 @@
+package edu.ccrm.service;
+
+import java.time.Instant;
+import java.util.List;
+
+// Records changed after a watermark, oldest change first; pass watermark() to the next call.
+public record ChangeSet<T>(List<T> records, long watermark) {
+    public static final long ALL = -1;
+    
+    // Watermark meaning "changed after this instant".
+    public static long watermarkAt(Instant time) {
+        return ChangeIndex.stampAt(time.toEpochMilli());
+    }
+}
@@ -1,20 +1,108 @@
 package edu.ccrm.service;
 
 import edu.ccrm.domain.*;
+import edu.ccrm.util.RuleSet;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 public class CourseService implements Searchable<Course> {
     private final Map<String, Course> courses;
+    private final NavigableSet<String> sortedCodes = new ConcurrentSkipListSet<>();
+    private final ChangeIndex changeIndex = new ChangeIndex(1);
+    private final PrerequisiteGraph prerequisites = new PrerequisiteGraph();
+    private final ChangeListener courseListener = this::onCourseChange;
+    private final List<ChangeListener> changeListeners = new CopyOnWriteArrayList<>();
+    private volatile Snapshot<Course> published = Snapshot.empty();
+    private volatile RuleSet<Course> courseRules = ValidationRules.COURSE;
     
-    public CourseService() { this.courses = new HashMap<>(); }
+    public CourseService() { this.courses = new ConcurrentHashMap<>(); }
     
-    public void addCourse(Course course) {
+    public RuleSet<Course> getCourseRules() { return courseRules; }
+    
+    public void setCourseRules(RuleSet<Course> rules) {
+        this.courseRules = Objects.requireNonNull(rules, "Rules cannot be null");
+    }
+    
+    public synchronized void addCourse(Course course) {
         assert course != null : "Course cannot be null";
+        courseRules.check(course);
         if (courses.containsKey(course.getCode())) {
             throw new IllegalArgumentException("Course with code " + course.getCode() + " already exists");
         }
         courses.put(course.getCode(), course);
+        sortedCodes.add(course.getCode());
+        course.setChangeListener(courseListener);
+        publish(course);
+        fireChange("Course", course.getCode(), ChangeType.CREATED, null);
+    }
+    
+    public void addChangeListener(ChangeListener listener) {
+        changeListeners.add(Objects.requireNonNull(listener, "Listener cannot be null"));
+    }
+    
+    public void removeChangeListener(ChangeListener listener) {
+        changeListeners.remove(listener);
+    }
+    
+    private void fireChange(String entityType, String entityId, ChangeType type, String detail) {
+        for (ChangeListener listener : changeListeners) {
+            listener.onChange(entityType, entityId, type, detail);
+        }
+    }
+    
+    private void onCourseChange(String entityType, String entityId, ChangeType type, String detail) {
+        Course course = courses.get(entityId);
+        if (course != null) publish(course);
+        fireChange(entityType, entityId, type, detail);
+    }
+    
+    private synchronized void publish(Course course) {
+        published = published.with(course.getCode(), course.copy());
+        changeIndex.touch(0, course.getCode());
+    }
+    
+    public Snapshot<Course> snapshot() {
+        return published;
+    }
+    
+    public ChangeSet<Course> getChangesSince(long watermark) {
+        long high = changeIndex.watermark();
+        List<String> codes = changeIndex.changedBetween(watermark, high);
+        Snapshot<Course> current = published;
+        List<Course> records = new ArrayList<>(codes.size());
+        codes.forEach(code -> current.get(code).ifPresent(records::add));
+        return new ChangeSet<>(records, high);
+    }
+    
+    public void addPrerequisite(String courseId, String prerequisiteId) {
+        requireCourse(courseId);
+        requireCourse(prerequisiteId);
+        prerequisites.add(courseId, prerequisiteId);
+    }
+    
+    public boolean removePrerequisite(String courseId, String prerequisiteId) {
+        return prerequisites.remove(courseId, prerequisiteId);
+    }
+    
+    private void requireCourse(String code) {
+        if (!courses.containsKey(code)) throw new IllegalArgumentException("Course not found: " + code);
+    }
+    
+    public Set<String> getPrerequisites(String courseId) {
+        return prerequisites.direct(courseId);
+    }
+    
+    // Every course reachable through the prerequisite chain, not just the direct ones.
+    public Set<String> getAllPrerequisites(String courseId) {
+        return prerequisites.closure(courseId);
+    }
+    
+    public List<String> getMissingPrerequisites(String courseId, Collection<String> completedCourses) {
+        return prerequisites.missing(courseId, completedCourses);
     }
     
     public Optional<Course> getCourse(String code) {
@@ -25,6 +113,28 @@ public class CourseService implements Searchable<Course> {
         return new ArrayList<>(courses.values());
     }
     
+    public int getCourseCount() {
+        return courses.size();
+    }
+    
+    // Zero-copy view in code order.
+    public Stream<Course> streamCourses() {
+        return sortedCodes.stream().map(courses::get);
+    }
+    
+    public Page<Course> getCoursesPage(String cursor, int pageSize) {
+        if (pageSize <= 0) throw new IllegalArgumentException("Page size must be positive");
+        NavigableSet<String> remaining = cursor == null ? sortedCodes : sortedCodes.tailSet(cursor, false);
+        List<Course> items = new ArrayList<>(Math.min(pageSize, remaining.size()));
+        for (String code : remaining) {
+            if (items.size() == pageSize) {
+                return new Page<>(items, items.get(items.size() - 1).getCode());
+            }
+            items.add(courses.get(code));
+        }
+        return new Page<>(items, null);
+    }
+    
     public List<Course> getActiveCourses() {
         return courses.values().stream()
             .filter(Course::isActive)
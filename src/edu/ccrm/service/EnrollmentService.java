@@ -1,75 +1,117 @@
 package edu.ccrm.service;
 
+import edu.ccrm.config.AppConfig;
 import edu.ccrm.domain.*;
+import edu.ccrm.util.BoundedCache;
 import java.util.*;
 import java.util.stream.Collectors;
 
 public class EnrollmentService {
+    private static final String ENROLLMENT_REPORT = "enrollment";
+    
+    // Derived per-course view; invalidated whenever the course or its roster changes.
+    private record CourseView(String courseId, String details, String reportLine, List<String> studentIds) {}
+    
     private final StudentService studentService;
     private final CourseService courseService;
+    private final BoundedCache<String, CourseView> courseViews;
+    private final BoundedCache<String, List<String>> reports;
     
     public EnrollmentService(StudentService studentService, CourseService courseService) {
         this.studentService = studentService;
         this.courseService = courseService;
+        this.courseViews = new BoundedCache<>(AppConfig.getInstance().getViewCacheCapacity());
+        this.reports = new BoundedCache<>(4);
+        
+        studentService.addChangeListener((entityType, entityId, type, detail) -> {
+            switch (type) {
+                case ENROLLED, UNENROLLED -> invalidateCourse(detail);
+                // A student that arrives with enrollments or changes status touches all its courses.
+                case CREATED, ACTIVATED, DEACTIVATED -> studentService.getStudent(entityId)
+                    .ifPresent(student -> student.getEnrolledCourses().forEach(this::invalidateCourse));
+                default -> { }
+            }
+        });
+        courseService.addChangeListener((entityType, entityId, type, detail) -> invalidateCourse(entityId));
+    }
+    
+    private void invalidateCourse(String courseId) {
+        courseViews.invalidate(courseId);
+        reports.invalidateAll();
+    }
+    
+    public BoundedCache.Stats getViewCacheStats() {
+        return courseViews.getStats();
     }
     
     public Map<String, List<String>> getEnrollmentsByCourse() {
         Map<String, List<String>> enrollments = new HashMap<>();
-        
-        studentService.getAllStudents().forEach(student -> {
-            student.getEnrolledCourses().forEach(courseId -> {
-                // Use _ for unused parameter
-                enrollments.computeIfAbsent(courseId, _ -> new ArrayList<>()).add(student.getId());
-            });
+        courseViews().forEach(view -> {
+            if (!view.studentIds().isEmpty()) enrollments.put(view.courseId(), view.studentIds());
         });
-        
         return enrollments;
     }
     
     public List<String> getStudentsInCourse(String courseId) {
-        return studentService.getAllStudents().stream()
-            .filter(student -> student.getEnrolledCourses().contains(courseId))
-            .map(Student::getId)
-            .collect(Collectors.toList());
+        return courseViews.get(courseId, id -> {
+            Snapshot<Course> courses = courseService.snapshot();
+            Map<String, List<String>> rosters = studentService.getRosters(Set.of(id));
+            return buildView(id, courses.get(id), rosters.getOrDefault(id, List.of()));
+        }).studentIds();
     }
     
-    public Map<String, String> getCourseDetailsForEnrollments() {
-        Map<String, String> courseDetails = new HashMap<>();
-        Map<String, List<String>> enrollments = getEnrollmentsByCourse();
+    // Cached views are reused; all missing ones are rebuilt together from one read of
+    // the roster indexes.
+    private List<CourseView> courseViews() {
+        Snapshot<Course> courses = courseService.snapshot();
+        List<CourseView> views = new ArrayList<>(courses.size());
+        Set<String> missing = new HashSet<>();
         
-        enrollments.keySet().forEach(courseId -> {
-            Optional<Course> course = courseService.getCourse(courseId);
-            if (course.isPresent()) {
-                Course c = course.get();
-                String details = String.format("%s (%s credits) - %s", 
-                    c.getTitle(), c.getCredits(), c.getDepartment());
-                courseDetails.put(courseId, details);
-            } else {
-                courseDetails.put(courseId, "Unknown Course");
-            }
+        courses.stream().forEach(course -> {
+            CourseView view = courseViews.getIfPresent(course.getCode());
+            if (view != null) views.add(view);
+            else missing.add(course.getCode());
         });
         
+        if (!missing.isEmpty()) {
+            long stamp = courseViews.stamp();
+            Map<String, List<String>> rosters = studentService.getRosters(missing);
+            missing.forEach(courseId -> {
+                CourseView view = buildView(courseId, courses.get(courseId), rosters.getOrDefault(courseId, List.of()));
+                courseViews.putIfCurrent(courseId, view, stamp);
+                views.add(view);
+            });
+        }
+        return views;
+    }
+    
+    private CourseView buildView(String courseId, Optional<Course> course, List<String> studentIds) {
+        String details = course.map(c -> String.format("%s (%s credits) - %s",
+                c.getTitle(), c.getCredits(), c.getDepartment()))
+            .orElse("Unknown Course");
+        String courseInfo = course.map(c -> c.getTitle() + " - " + c.getDepartment())
+            .orElse("Unknown Course");
+        String reportLine = String.format("📚 %s: %s (%d students)", courseId, courseInfo, studentIds.size());
+        return new CourseView(courseId, details, reportLine, List.copyOf(studentIds));
+    }
+    
+    public Map<String, String> getCourseDetailsForEnrollments() {
+        Map<String, String> courseDetails = new HashMap<>();
+        courseViews().forEach(view -> {
+            if (!view.studentIds().isEmpty()) courseDetails.put(view.courseId(), view.details());
+        });
         return courseDetails;
     }
     
     public void printEnrollmentReport() {
-        Map<String, List<String>> enrollments = getEnrollmentsByCourse();
+        List<String> lines = reports.get(ENROLLMENT_REPORT, _ -> courseViews().stream()
+            .filter(view -> !view.studentIds().isEmpty())
+            .sorted((v1, v2) -> Integer.compare(v2.studentIds().size(), v1.studentIds().size()))
+            .map(CourseView::reportLine)
+            .collect(Collectors.toUnmodifiableList()));
         
         System.out.println("\n📊 ENROLLMENT REPORT");
         System.out.println("=".repeat(50));
-        
-        enrollments.entrySet().stream()
-            .sorted((e1, e2) -> Integer.compare(e2.getValue().size(), e1.getValue().size()))
-            .forEach(entry -> {
-                String courseId = entry.getKey();
-                List<String> studentIds = entry.getValue();
-                
-                Optional<Course> course = courseService.getCourse(courseId);
-                String courseInfo = course.map(c -> c.getTitle() + " - " + c.getDepartment())
-                                         .orElse("Unknown Course");
-                
-                System.out.printf("📚 %s: %s (%d students)%n", 
-                    courseId, courseInfo, studentIds.size());
-            });
+        lines.forEach(System.out::println);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,3 @@
+package edu.ccrm.service;
+
+public record GradeEntry(String studentId, String courseId, double score) {}
@@ -0,0 +1,111 @@
+package edu.ccrm.service;
+
+import edu.ccrm.domain.Grade;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Running grade statistics for one course. Count, mean and variance use Welford's
+ * update, which can also be reversed when a score is replaced or withdrawn. The
+ * quantile sketch is a fixed histogram of 0.1-point bins over 0-100: unlike streaming
+ * sketches it supports removal, and a percentile read costs the same for 50 or 5,000
+ * students. Scores outside 0-100 count in the edge bins.
+ */
+public final class GradeStatistics {
+    private static final int BINS_PER_POINT = 10;
+    private static final int BINS = 100 * BINS_PER_POINT + 1;
+    
+    private long count;
+    private double mean;
+    private double m2;
+    private final int[] histogram;
+    private final long[] letters = new long[Grade.values().length];
+    
+    GradeStatistics() {
+        this.histogram = new int[BINS];
+    }
+    
+    private GradeStatistics(GradeStatistics other) {
+        this.count = other.count;
+        this.mean = other.mean;
+        this.m2 = other.m2;
+        this.histogram = other.histogram.clone();
+        System.arraycopy(other.letters, 0, letters, 0, letters.length);
+    }
+    
+    GradeStatistics copy() {
+        return new GradeStatistics(this);
+    }
+    
+    void add(double score) {
+        count++;
+        double delta = score - mean;
+        mean += delta / count;
+        m2 += delta * (score - mean);
+        histogram[bin(score)]++;
+        letters[Grade.fromScore(score).ordinal()]++;
+    }
+    
+    void remove(double score) {
+        if (count <= 1) {
+            count = 0;
+            mean = 0;
+            m2 = 0;
+        } else {
+            double previousMean = mean - (score - mean) / (count - 1);
+            m2 = Math.max(0, m2 - (score - previousMean) * (score - mean));
+            mean = previousMean;
+            count--;
+        }
+        histogram[bin(score)]--;
+        letters[Grade.fromScore(score).ordinal()]--;
+    }
+    
+    // Chan et al. pairwise combination, used to fold shard-local statistics together.
+    void merge(GradeStatistics other) {
+        if (other.count == 0) return;
+        long total = count + other.count;
+        double delta = other.mean - mean;
+        mean += delta * other.count / total;
+        m2 += other.m2 + delta * delta * count * other.count / total;
+        count = total;
+        for (int i = 0; i < BINS; i++) histogram[i] += other.histogram[i];
+        for (int i = 0; i < letters.length; i++) letters[i] += other.letters[i];
+    }
+    
+    private static int bin(double score) {
+        int bin = (int) Math.round(score * BINS_PER_POINT);
+        return Math.max(0, Math.min(BINS - 1, bin));
+    }
+    
+    public long getCount() { return count; }
+    public double getMean() { return mean; }
+    
+    // Population variance: the enrolled students are the whole course, not a sample of it.
+    public double getVariance() { return count == 0 ? 0 : m2 / count; }
+    public double getStdDev() { return Math.sqrt(getVariance()); }
+    
+    // Nearest-rank percentile to 0.1-point resolution; p in [0, 100].
+    public double getPercentile(double p) {
+        if (p < 0 || p > 100) throw new IllegalArgumentException("Percentile must be between 0 and 100");
+        if (count == 0) return Double.NaN;
+        long rank = Math.max(1, (long) Math.ceil(p / 100 * count));
+        long seen = 0;
+        for (int i = 0; i < BINS; i++) {
+            seen += histogram[i];
+            if (seen >= rank) return (double) i / BINS_PER_POINT;
+        }
+        return 100;
+    }
+    
+    public double getMedian() { return getPercentile(50); }
+    public double getMin() { return getPercentile(0); }
+    public double getMax() { return getPercentile(100); }
+    
+    public Map<Grade, Long> getLetterCounts() {
+        Map<Grade, Long> counts = new EnumMap<>(Grade.class);
+        for (Grade grade : Grade.values()) counts.put(grade, letters[grade.ordinal()]);
+        return counts;
+    }
+}
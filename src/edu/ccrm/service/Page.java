@@ -0,0 +1,8 @@
+package edu.ccrm.service;
+
+import java.util.List;
+
+// One page of an ID-ordered listing; pass nextCursor back to continue after the last item.
+public record Page<T>(List<T> items, String nextCursor) {
+    public boolean hasMore() { return nextCursor != null; }
+}
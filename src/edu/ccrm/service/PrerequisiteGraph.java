@@ -0,0 +1,134 @@
+package edu.ccrm.service;
+
+import java.util.*;
+
+/**
+ * Prerequisite DAG over course codes. Each course has a dense bit index and keeps
+ * the transitive closure of its prerequisites as a BitSet, so checking an enrollment
+ * against a chain of any depth is one andNot. Closures are extended when an edge is
+ * added and an edge that would close a cycle is rejected there; removing an edge
+ * rebuilds them. Readers get an immutable state through a volatile reference.
+ */
+final class PrerequisiteGraph {
+    private static final BitSet NONE = new BitSet();
+    
+    private record State(Map<String, Integer> index, List<String> codes,
+                         Map<String, Set<String>> direct, List<BitSet> closures) {
+        static final State EMPTY = new State(Map.of(), List.of(), Map.of(), List.of());
+        
+        BitSet closure(String code) {
+            Integer bit = index.get(code);
+            return bit != null ? closures.get(bit) : NONE;
+        }
+    }
+    
+    private volatile State state = State.EMPTY;
+    
+    synchronized void add(String courseId, String prerequisiteId) {
+        State current = state;
+        if (courseId.equals(prerequisiteId)) {
+            throw new IllegalArgumentException("Course cannot be its own prerequisite: " + courseId);
+        }
+        if (current.direct().getOrDefault(courseId, Set.of()).contains(prerequisiteId)) return;
+        Integer courseBit = current.index().get(courseId);
+        if (courseBit != null && current.closure(prerequisiteId).get(courseBit)) {
+            throw new IllegalArgumentException("Prerequisite " + prerequisiteId + " of " + courseId
+                + " would create a cycle: " + prerequisiteId + " already requires " + courseId);
+        }
+        
+        Map<String, Integer> index = new HashMap<>(current.index());
+        List<String> codes = new ArrayList<>(current.codes());
+        List<BitSet> closures = new ArrayList<>(current.closures());
+        int course = bitFor(courseId, index, codes, closures);
+        int prerequisite = bitFor(prerequisiteId, index, codes, closures);
+        
+        // The course and everything that already requires it gain the prerequisite's closure.
+        BitSet gained = (BitSet) closures.get(prerequisite).clone();
+        gained.set(prerequisite);
+        for (int bit = 0; bit < closures.size(); bit++) {
+            BitSet closure = closures.get(bit);
+            if (bit == course || closure.get(course)) {
+                BitSet extended = (BitSet) closure.clone();
+                extended.or(gained);
+                closures.set(bit, extended);
+            }
+        }
+        
+        Map<String, Set<String>> direct = new HashMap<>(current.direct());
+        Set<String> prerequisites = new TreeSet<>(direct.getOrDefault(courseId, Set.of()));
+        prerequisites.add(prerequisiteId);
+        direct.put(courseId, Collections.unmodifiableSet(prerequisites));
+        state = new State(index, codes, direct, closures);
+    }
+    
+    private static int bitFor(String code, Map<String, Integer> index, List<String> codes, List<BitSet> closures) {
+        return index.computeIfAbsent(code, _ -> {
+            codes.add(code);
+            closures.add(NONE);
+            return codes.size() - 1;
+        });
+    }
+    
+    synchronized boolean remove(String courseId, String prerequisiteId) {
+        State current = state;
+        Set<String> prerequisites = current.direct().get(courseId);
+        if (prerequisites == null || !prerequisites.contains(prerequisiteId)) return false;
+        
+        Map<String, Set<String>> direct = new HashMap<>(current.direct());
+        Set<String> remaining = new TreeSet<>(prerequisites);
+        remaining.remove(prerequisiteId);
+        if (remaining.isEmpty()) direct.remove(courseId);
+        else direct.put(courseId, Collections.unmodifiableSet(remaining));
+        
+        List<BitSet> closures = new ArrayList<>(Collections.nCopies(current.codes().size(), (BitSet) null));
+        for (int bit = 0; bit < closures.size(); bit++) {
+            rebuild(bit, current.index(), current.codes(), direct, closures);
+        }
+        state = new State(current.index(), current.codes(), direct, closures);
+        return true;
+    }
+    
+    private static BitSet rebuild(int bit, Map<String, Integer> index, List<String> codes,
+                                  Map<String, Set<String>> direct, List<BitSet> closures) {
+        BitSet closure = closures.get(bit);
+        if (closure != null) return closure;
+        closure = new BitSet();
+        for (String prerequisite : direct.getOrDefault(codes.get(bit), Set.of())) {
+            int prerequisiteBit = index.get(prerequisite);
+            closure.set(prerequisiteBit);
+            closure.or(rebuild(prerequisiteBit, index, codes, direct, closures));
+        }
+        closures.set(bit, closure);
+        return closure;
+    }
+    
+    Set<String> direct(String courseId) {
+        return state.direct().getOrDefault(courseId, Set.of());
+    }
+    
+    Set<String> closure(String courseId) {
+        State current = state;
+        return toCodes(current, current.closure(courseId));
+    }
+    
+    // Sorted codes of the closure that the completed courses do not cover.
+    List<String> missing(String courseId, Collection<String> completed) {
+        State current = state;
+        BitSet required = current.closure(courseId);
+        if (required.isEmpty()) return List.of();
+        BitSet done = new BitSet(current.codes().size());
+        for (String code : completed) {
+            Integer bit = current.index().get(code);
+            if (bit != null) done.set(bit);
+        }
+        BitSet missing = (BitSet) required.clone();
+        missing.andNot(done);
+        return missing.isEmpty() ? List.of() : List.copyOf(toCodes(current, missing));
+    }
+    
+    private static Set<String> toCodes(State state, BitSet bits) {
+        Set<String> codes = new TreeSet<>();
+        bits.stream().forEach(bit -> codes.add(state.codes().get(bit)));
+        return Collections.unmodifiableSet(codes);
+    }
+}
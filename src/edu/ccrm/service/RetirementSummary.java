@@ -0,0 +1,18 @@
+package edu.ccrm.service;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+public record RetirementSummary(List<String> courses, int students, Map<String, Integer> unenrolledByCourse,
+                                Duration elapsed) {
+    public int enrollments() {
+        return unenrolledByCourse.values().stream().mapToInt(Integer::intValue).sum();
+    }
+    
+    @Override
+    public String toString() {
+        return String.format("Retired %d course(s): %d enrollment(s) of %d student(s) removed in %d ms",
+            courses.size(), enrollments(), students, elapsed.toMillis());
+    }
+}
@@ -0,0 +1,125 @@
+package edu.ccrm.service;
+
+import edu.ccrm.util.PersistentMap;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+// Immutable point-in-time view of a service's records; safe to read from any thread.
+// A sharded service hands out one view made of every shard's persistent map.
+public final class Snapshot<T> {
+    private final long version;
+    private final List<PersistentMap<String, T>> parts;
+    
+    public Snapshot(long version, PersistentMap<String, T> entries) {
+        this(version, List.of(entries));
+    }
+    
+    private Snapshot(long version, List<PersistentMap<String, T>> parts) {
+        this.version = version;
+        this.parts = parts;
+    }
+    
+    public static <T> Snapshot<T> empty() {
+        return new Snapshot<>(0, PersistentMap.empty());
+    }
+    
+    // Joins per-shard snapshots without copying; shards never share keys.
+    static <T> Snapshot<T> merge(List<Snapshot<T>> shards) {
+        long version = 0;
+        List<PersistentMap<String, T>> parts = new ArrayList<>();
+        for (Snapshot<T> shard : shards) {
+            version += shard.version;
+            parts.addAll(shard.parts);
+        }
+        return new Snapshot<>(version, List.copyOf(parts));
+    }
+    
+    Snapshot<T> with(String id, T value) {
+        if (parts.size() != 1) throw new IllegalStateException("Merged snapshots are read-only");
+        return new Snapshot<>(version + 1, parts.get(0).plus(id, value));
+    }
+    
+    public long version() { return version; }
+    
+    public Optional<T> get(String id) {
+        for (PersistentMap<String, T> part : parts) {
+            T value = part.get(id);
+            if (value != null) return Optional.of(value);
+        }
+        return Optional.empty();
+    }
+    
+    public int size() {
+        int size = 0;
+        for (PersistentMap<String, T> part : parts) size += part.size();
+        return size;
+    }
+    
+    public Stream<T> stream() {
+        return parts.size() == 1 ? parts.get(0).values() : StreamSupport.stream(spliterator(), false);
+    }
+    
+    public Spliterator<T> spliterator() {
+        if (parts.size() == 1) return parts.get(0).valueSpliterator();
+        List<Spliterator<T>> spliterators = new ArrayList<>(parts.size());
+        parts.forEach(part -> spliterators.add(part.valueSpliterator()));
+        return new PartsSpliterator<>(spliterators, 0, spliterators.size());
+    }
+    
+    // Splits between parts first, then inside the last remaining part.
+    private static final class PartsSpliterator<T> implements Spliterator<T> {
+        private final List<Spliterator<T>> parts;
+        private int index;
+        private final int fence;
+        
+        PartsSpliterator(List<Spliterator<T>> parts, int index, int fence) {
+            this.parts = parts;
+            this.index = index;
+            this.fence = fence;
+        }
+        
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            while (index < fence) {
+                if (parts.get(index).tryAdvance(action)) return true;
+                index++;
+            }
+            return false;
+        }
+        
+        @Override
+        public void forEachRemaining(Consumer<? super T> action) {
+            while (index < fence) {
+                parts.get(index++).forEachRemaining(action);
+            }
+        }
+        
+        @Override
+        public Spliterator<T> trySplit() {
+            if (fence - index == 1) return parts.get(index).trySplit();
+            int mid = (index + fence) >>> 1;
+            if (mid <= index) return null;
+            Spliterator<T> prefix = new PartsSpliterator<>(parts, index, mid);
+            index = mid;
+            return prefix;
+        }
+        
+        @Override
+        public long estimateSize() {
+            long size = 0;
+            for (int i = index; i < fence; i++) size += parts.get(i).estimateSize();
+            return size;
+        }
+        
+        @Override
+        public int characteristics() {
+            return Spliterator.IMMUTABLE | Spliterator.NONNULL;
+        }
+    }
+}
@@ -2,89 +2,841 @@ package edu.ccrm.service;
 
 import edu.ccrm.config.AppConfig;
 import edu.ccrm.domain.*;
+import edu.ccrm.io.StudentRecordStore;
+import edu.ccrm.util.PersistentMap;
+import edu.ccrm.util.RuleSet;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.BooleanSupplier;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
-public class StudentService implements Searchable<Student> {
-    private final Map<String, Student> students;
+public class StudentService implements Searchable<Student>, AutoCloseable {
+    
     private final CourseService courseService;
+    private final StudentRecordStore store;
+    private final Shard[] shards;
+    private final ChangeIndex changeIndex;
+    private final NavigableSet<String> sortedIds = new ConcurrentSkipListSet<>();
+    private final ChangeListener studentListener = this::onStudentChange;
+    private final ChangeListener courseListener = this::onCourseChange;
+    private final List<ChangeListener> changeListeners = new CopyOnWriteArrayList<>();
+    private volatile RuleSet<Student> studentRules = ValidationRules.STUDENT;
+    private volatile RuleSet<GradeEntry> gradeRules = ValidationRules.GRADE;
     
+    // Writers are serialized on the service; readers either look up single records or
+    // take a snapshot(), which never waits for writers.
     public StudentService(CourseService courseService) {
-        this.students = new HashMap<>();
+        this(courseService, 1);
+    }
+    
+    // Sharded mode: students are partitioned by ID hash and every shard applies its
+    // commands on its own thread, so writers on different shards never contend.
+    public StudentService(CourseService courseService, int shardCount) {
+        if (shardCount <= 0) throw new IllegalArgumentException("Shard count must be positive");
         this.courseService = courseService;
+        this.store = null;
+        this.shards = new Shard[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new Shard(new ConcurrentHashMap<>(), i, shardCount > 1);
+            shards[i].indexesReady = true;
+        }
+        this.changeIndex = new ChangeIndex(shardCount);
+        courseService.addChangeListener(courseListener);
+    }
+    
+    // Store-backed mode: the map only holds the most recently used students,
+    // everything else is materialized from the record store on demand. The service
+    // owns the store and closes it with itself.
+    public StudentService(CourseService courseService, StudentRecordStore store, int cacheSize) {
+        this.courseService = courseService;
+        this.store = Objects.requireNonNull(store, "Record store cannot be null");
+        Map<String, Student> students = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Student> eldest) {
+                if (size() <= cacheSize) return false;
+                // An eviction must not fail the insert that triggered it; a record that
+                // cannot be written stays cached and is retried on the next eviction.
+                try {
+                    store.write(eldest.getValue());
+                } catch (IllegalArgumentException e) {
+                    System.err.println("Keeping unwritable student in cache: " + e.getMessage());
+                    return false;
+                }
+                // The ledger is rebuilt from the record if the student is loaded again.
+                StudentService.this.shards[0].termEnrollments.remove(eldest.getKey());
+                return true;
+            }
+        };
+        this.shards = new Shard[] { new Shard(students, 0, false) };
+        shards[0].indexesReady = store.size() == 0;
+        this.changeIndex = new ChangeIndex(1);
+        for (String id : store.ids()) {
+            sortedIds.add(id);
+            changeIndex.touch(0, id);
+        }
+        courseService.addChangeListener(courseListener);
+    }
+    
+    // One partition of the student data. Its maps are only written by commands, which
+    // run on the shard's thread or, for an unsharded service, under the monitor of the
+    // students map. Store-backed lookups take that same monitor, since even a get
+    // reorders the access-ordered cache.
+    private static final class Shard {
+        final Map<String, Student> students;
+        final int lane;
+        // Concurrent because store-backed evictions drop ledgers from outside commands.
+        final Map<String, TermEnrollments> termEnrollments = new ConcurrentHashMap<>();
+        final Map<AcademicTerm, Map<String, TermEnrollments.Partition>> archivedTerms = new HashMap<>();
+        final Map<String, GradeStatistics> gradeStats = new HashMap<>();
+        // Course -> enrolled student IDs; lists rather than sets keep one reference per enrollment.
+        final Map<String, List<String>> rosters = new HashMap<>();
+        boolean indexesReady;
+        // Student whose change events a bulk command is currently collecting, see coalesce().
+        String coalescing;
+        final List<DeferredChange> deferred = new ArrayList<>();
+        final ExecutorService executor;
+        volatile Thread owner;
+        volatile Snapshot<Student> published = Snapshot.empty();
+        
+        Shard(Map<String, Student> students, int lane, boolean threaded) {
+            this.students = students;
+            this.lane = lane;
+            this.executor = !threaded ? null : Executors.newSingleThreadExecutor(task -> {
+                Thread thread = new Thread(task, "student-shard-" + lane);
+                thread.setDaemon(true);
+                owner = thread;
+                return thread;
+            });
+        }
+        
+        private boolean inline() {
+            return executor == null || Thread.currentThread() == owner;
+        }
+        
+        private <R> R callHere(Supplier<R> command) {
+            if (executor != null) return command.get();
+            synchronized (students) {
+                return command.get();
+            }
+        }
+        
+        <R> R call(Supplier<R> command) {
+            if (inline()) return callHere(command);
+            return await(CompletableFuture.supplyAsync(command, executor));
+        }
+        
+        void run(Runnable command) {
+            call(() -> {
+                command.run();
+                return null;
+            });
+        }
+        
+        <R> CompletableFuture<R> submit(Supplier<R> command) {
+            if (!inline()) return CompletableFuture.supplyAsync(command, executor);
+            try {
+                return CompletableFuture.completedFuture(callHere(command));
+            } catch (RuntimeException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        }
+    }
+    
+    private record DeferredChange(String entityType, ChangeType type, String detail) {}
+    
+    private static <R> R await(CompletableFuture<R> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            if (e.getCause() instanceof Error cause) throw cause;
+            throw e;
+        }
+    }
+    
+    private Shard shardFor(String id) {
+        return shards[shardIndex(id)];
+    }
+    
+    private int shardIndex(String id) {
+        if (shards.length == 1) return 0;
+        int h = id.hashCode();
+        return Math.floorMod(h ^ (h >>> 16), shards.length);
+    }
+    
+    // Cross-shard commands are queued on every shard before any result is awaited.
+    private <R> List<R> fanOut(Function<Shard, R> command) {
+        List<CompletableFuture<R>> futures = new ArrayList<>(shards.length);
+        for (Shard shard : shards) {
+            futures.add(shard.submit(() -> command.apply(shard)));
+        }
+        List<R> results = new ArrayList<>(shards.length);
+        futures.forEach(future -> results.add(await(future)));
+        return results;
+    }
+    
+    public int getShardCount() {
+        return shards.length;
+    }
+    
+    // Rules run on the caller's thread before a command is queued on a shard.
+    public void setStudentRules(RuleSet<Student> rules) {
+        this.studentRules = Objects.requireNonNull(rules, "Rules cannot be null");
+    }
+    
+    public RuleSet<Student> getStudentRules() { return studentRules; }
+    public RuleSet<GradeEntry> getGradeRules() { return gradeRules; }
+    
+    public void setGradeRules(RuleSet<GradeEntry> rules) {
+        this.gradeRules = Objects.requireNonNull(rules, "Rules cannot be null");
     }
     
     public void addStudent(Student student) {
         assert student != null : "Student cannot be null";
-        if (students.containsKey(student.getId())) {
-            throw new IllegalArgumentException("Student with ID " + student.getId() + " already exists");
+        studentRules.check(student);
+        Shard shard = shardFor(student.getId());
+        shard.run(() -> {
+            if (shard.students.containsKey(student.getId()) || (store != null && store.contains(student.getId()))) {
+                throw new IllegalArgumentException("Student with ID " + student.getId() + " already exists");
+            }
+            for (String courseId : student.getEnrolledCourses()) {
+                if (courseService.getCourse(courseId).isEmpty()) throw new IllegalArgumentException("Course not found: " + courseId);
+            }
+            // Only now that every course exists are the IDs pooled, so rejected rows pin nothing.
+            student.internCourseIds();
+            if (store != null) store.write(student);
+            shard.students.put(student.getId(), student);
+            // Enrollments the student arrives with (an import) are taken as recorded, like a restore.
+            for (String courseId : student.getEnrolledCourses()) {
+                addToRoster(shard, courseId, student.getId());
+                regrade(shard, courseId, null, student.getGrade(courseId));
+            }
+            sortedIds.add(student.getId());
+            student.setChangeListener(studentListener);
+            publish(shard, student);
+            changeIndex.touch(shard.lane, student.getId());
+            fireChange(student.getRole(), student.getId(), ChangeType.CREATED, null);
+            // Listeners see the arriving enrollments and grades as if they were made one by one.
+            for (String courseId : student.getEnrolledCourses()) {
+                fireChange(student.getRole(), student.getId(), ChangeType.ENROLLED, courseId);
+                Double score = student.getGrade(courseId);
+                if (score != null) {
+                    fireChange(student.getRole(), student.getId(), ChangeType.GRADE_RECORDED, courseId + "=" + score);
+                }
+            }
+        });
+    }
+    
+    // Edits a student on its owning shard; a null argument keeps that field. Only fields
+    // that differ are set, and the result must pass the rules before any of them is.
+    public boolean updateStudent(String id, String fullName, String email, Boolean active) {
+        Shard shard = shardFor(id);
+        return shard.call(() -> {
+            Student student = lookup(id);
+            if (student == null) throw new IllegalArgumentException("Student not found: " + id);
+            boolean name = fullName != null && !fullName.equals(student.getFullName());
+            boolean mail = email != null && !email.equals(student.getEmail());
+            boolean status = active != null && active != student.isActive();
+            if (!name && !mail && !status) return false;
+            
+            Student updated = student.copy();
+            if (name) updated.setFullName(fullName);
+            if (mail) updated.setEmail(email);
+            if (status) updated.setActive(active);
+            studentRules.check(updated);
+            if (store != null) store.checkRecord(updated);
+            return coalesce(shard, student, () -> {
+                if (name) student.setFullName(fullName);
+                if (mail) student.setEmail(email);
+                if (status) student.setActive(active);
+                return true;
+            });
+        });
+    }
+    
+    public void addChangeListener(ChangeListener listener) {
+        changeListeners.add(Objects.requireNonNull(listener, "Listener cannot be null"));
+    }
+    
+    public void removeChangeListener(ChangeListener listener) {
+        changeListeners.remove(listener);
+    }
+    
+    private void fireChange(String entityType, String entityId, ChangeType type, String detail) {
+        for (ChangeListener listener : changeListeners) {
+            listener.onChange(entityType, entityId, type, detail);
+        }
+    }
+    
+    // Direct edits through Person setters arrive on the caller's thread; the publish is
+    // handed to the owning shard like any other command. The new version is published
+    // before it is stamped, so a change set never pairs a stamp with an older copy.
+    private void onStudentChange(String entityType, String entityId, ChangeType type, String detail) {
+        Shard shard = shardFor(entityId);
+        boolean deferred = shard.call(() -> {
+            if (entityId.equals(shard.coalescing)) {
+                shard.deferred.add(new DeferredChange(entityType, type, detail));
+                return true;
+            }
+            Student student = shard.students.get(entityId);
+            if (student != null) publish(shard, student);
+            changeIndex.touch(shard.lane, entityId);
+            return false;
+        });
+        if (!deferred) fireChange(entityType, entityId, type, detail);
+    }
+    
+    // Applies several changes to one student within a command, publishing the new version,
+    // stamping the change index and writing through once instead of per change. The
+    // collected events are fired afterwards, so listeners read the finished record.
+    private boolean coalesce(Shard shard, Student student, BooleanSupplier updates) {
+        shard.coalescing = student.getId();
+        boolean changed;
+        try {
+            changed = updates.getAsBoolean();
+        } finally {
+            shard.coalescing = null;
+        }
+        if (changed) {
+            publish(shard, student);
+            changeIndex.touch(shard.lane, student.getId());
+            writeThrough(student);
         }
-        students.put(student.getId(), student);
+        List<DeferredChange> events = List.copyOf(shard.deferred);
+        shard.deferred.clear();
+        events.forEach(event -> fireChange(event.entityType(), student.getId(), event.type(), event.detail()));
+        return changed;
+    }
+    
+    // Copy-on-write: every mutation publishes a frozen copy into the next persistent version.
+    private void publish(Shard shard, Student student) {
+        if (store == null) shard.published = shard.published.with(student.getId(), student.copy());
+    }
+    
+    // Store-backed mode does not keep published versions (that would pin every record on
+    // the heap), so its snapshot is built by copying all records under the write lock.
+    public Snapshot<Student> snapshot() {
+        if (store == null) {
+            if (shards.length == 1) return shards[0].published;
+            List<Snapshot<Student>> parts = new ArrayList<>(shards.length);
+            for (Shard shard : shards) parts.add(shard.published);
+            return Snapshot.merge(parts);
+        }
+        Shard shard = shards[0];
+        return shard.call(() -> {
+            PersistentMap<String, Student> entries = PersistentMap.empty();
+            for (String id : sortedIds) {
+                Student student = peek(id);
+                if (student != null) entries = entries.plus(id, student.copy());
+            }
+            return new Snapshot<>(shard.published.version() + 1, entries);
+        });
+    }
+    
+    // Served from the update-ordered index, so cost follows the number of changes, not students.
+    public ChangeSet<Student> getChangesSince(long watermark) {
+        long high = changeIndex.watermark();
+        List<String> ids = changeIndex.changedBetween(watermark, high);
+        Snapshot<Student> current = store == null ? snapshot() : null;
+        List<Student> records = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            Optional<Student> student = current != null ? current.get(id) : Optional.ofNullable(peek(id)).map(Student::copy);
+            student.ifPresent(records::add);
+        }
+        return new ChangeSet<>(records, high);
     }
     
     public Optional<Student> getStudent(String id) {
-        return Optional.ofNullable(students.get(id));
+        return Optional.ofNullable(lookup(id));
+    }
+    
+    private Student lookup(String id) {
+        Map<String, Student> students = shardFor(id).students;
+        if (store == null) return students.get(id);
+        synchronized (students) {
+            Student student = students.get(id);
+            if (student == null) {
+                student = store.read(id).orElse(null);
+                if (student != null) {
+                    student.setChangeListener(studentListener);
+                    students.put(id, student);
+                }
+            }
+            return student;
+        }
+    }
+    
+    // Full scans read through the store without pulling every record into the cache.
+    private Student peek(String id) {
+        Map<String, Student> students = shardFor(id).students;
+        if (store == null) return students.get(id);
+        Student cached;
+        synchronized (students) {
+            cached = students.get(id);
+        }
+        return cached != null ? cached : store.read(id).orElse(null);
+    }
+    
+    private Stream<Student> studentStream() {
+        if (store == null) return Arrays.stream(shards).flatMap(shard -> shard.students.values().stream());
+        return streamStudents();
+    }
+    
+    // Zero-copy view in ID order; the underlying sorted index splits evenly for parallel use.
+    public Stream<Student> streamStudents() {
+        return sortedIds.stream().map(this::peek).filter(Objects::nonNull);
+    }
+    
+    public Page<Student> getStudentsPage(String cursor, int pageSize) {
+        if (pageSize <= 0) throw new IllegalArgumentException("Page size must be positive");
+        NavigableSet<String> remaining = cursor == null ? sortedIds : sortedIds.tailSet(cursor, false);
+        List<Student> items = new ArrayList<>(Math.min(pageSize, remaining.size()));
+        String lastId = null;
+        for (String id : remaining) {
+            if (items.size() == pageSize) {
+                return new Page<>(items, lastId);
+            }
+            Student student = peek(id);
+            if (student != null) items.add(student);
+            lastId = id;
+        }
+        return new Page<>(items, null);
+    }
+    
+    public int getStudentCount() {
+        return sortedIds.size();
     }
     
     public List<Student> getAllStudents() {
-        return new ArrayList<>(students.values());
+        return studentStream().collect(Collectors.toList());
     }
     
     public List<Student> getActiveStudents() {
-        return students.values().stream()
-            .filter(Student::isActive)
-            .collect(Collectors.toList());
+        return search(Student::isActive);
     }
     
     public void enrollStudentInCourse(String studentId, String courseId) {
-        Student student = students.get(studentId);
-        if (student == null) throw new IllegalArgumentException("Student not found: " + studentId);
-        
-        Course course = courseService.getCourse(courseId)
-            .orElseThrow(() -> new IllegalArgumentException("Course not found: " + courseId));
-        
-        if (student.getEnrolledCourses().contains(courseId)) {
-            throw new DuplicateEnrollmentException(studentId, courseId);
+        Shard shard = shardFor(studentId);
+        shard.run(() -> {
+            Student student = lookup(studentId);
+            if (student == null) throw new IllegalArgumentException("Student not found: " + studentId);
+            
+            Course course = courseService.getCourse(courseId)
+                .orElseThrow(() -> new IllegalArgumentException("Course not found: " + courseId));
+            if (!course.isActive()) throw new IllegalArgumentException("Course is not active: " + courseId);
+            if (shard.archivedTerms.containsKey(course.getTerm())) {
+                throw new IllegalArgumentException("Term " + course.getTerm() + " is archived: " + courseId);
+            }
+            
+            if (student.getEnrolledCourses().contains(courseId)) {
+                throw new DuplicateEnrollmentException(studentId, courseId);
+            }
+            if (store != null) store.checkEnrollment(student, courseId);
+            
+            TermEnrollments ledger = termEnrollments(shard, student);
+            int currentCredits = ledger.getCredits(course.getTerm());
+            int maxCredits = AppConfig.getInstance().getMaxCreditsPerSemester();
+            if (currentCredits + course.getCredits() > maxCredits) {
+                throw new MaxCreditLimitExceededException(currentCredits, course.getCredits(), maxCredits);
+            }
+            
+            List<String> missing = courseService.getMissingPrerequisites(courseId, completedCourses(student));
+            if (!missing.isEmpty()) {
+                throw new PrerequisiteNotMetException(studentId, courseId, missing);
+            }
+            
+            student.enrollInCourse(course.getCode());
+            ledger.add(course);
+            addToRoster(shard, courseId, studentId);
+            writeThrough(student);
+        });
+    }
+    
+    // Courses the student has passed, i.e. graded above F.
+    private static List<String> completedCourses(Student student) {
+        List<String> completed = new ArrayList<>();
+        for (String courseId : student.getEnrolledCourses()) {
+            Grade grade = student.getLetterGrade(courseId);
+            if (grade != null && grade != Grade.F) completed.add(courseId);
+        }
+        return completed;
+    }
+    
+    // Replays an enrollment from a backup as recorded; its credit limit was checked when it was made.
+    public void restoreEnrollment(String studentId, String courseId, Double score) {
+        Shard shard = shardFor(studentId);
+        shard.run(() -> {
+            Student student = lookup(studentId);
+            if (student == null) throw new IllegalArgumentException("Student not found: " + studentId);
+            Course course = courseService.getCourse(courseId)
+                .orElseThrow(() -> new IllegalArgumentException("Course not found: " + courseId));
+            if (store != null) store.checkEnrollment(student, courseId);
+            
+            TermEnrollments ledger = termEnrollments(shard, student);
+            if (student.enrollInCourse(course.getCode())) {
+                if (!shard.archivedTerms.containsKey(course.getTerm())) ledger.add(course);
+                addToRoster(shard, courseId, studentId);
+            }
+            if (score != null) {
+                Double previous = student.getGrade(courseId);
+                student.recordGrade(courseId, score);
+                regrade(shard, courseId, previous, score);
+            }
+            writeThrough(student);
+        });
+    }
+    
+    public boolean unenrollStudentFromCourse(String studentId, String courseId) {
+        Shard shard = shardFor(studentId);
+        return shard.call(() -> {
+            Student student = lookup(studentId);
+            if (student == null) throw new IllegalArgumentException("Student not found: " + studentId);
+            
+            boolean removed = unenroll(shard, student, courseId);
+            if (removed) writeThrough(student);
+            return removed;
+        });
+    }
+    
+    private boolean unenroll(Shard shard, Student student, String courseId) {
+        Double previous = student.getGrade(courseId);
+        if (!student.unenrollFromCourse(courseId)) return false;
+        termEnrollments(shard, student).remove(courseId);
+        regrade(shard, courseId, previous, null);
+        removeFromRoster(shard, courseId, student.getId());
+        return true;
+    }
+    
+    // Deactivates the courses, then unenrolls everyone found through the shards' rosters.
+    // Each shard works through its students in batches, so the shards run in parallel and
+    // ordinary commands are interleaved between batches rather than stalled behind the
+    // whole retirement.
+    public RetirementSummary retireCourses(Collection<String> courseIds) {
+        long started = System.nanoTime();
+        Set<String> retiring = new TreeSet<>(courseIds);
+        List<Course> courses = new ArrayList<>(retiring.size());
+        for (String courseId : retiring) {
+            courses.add(courseService.getCourse(courseId)
+                .orElseThrow(() -> new IllegalArgumentException("Course not found: " + courseId)));
         }
+        courses.forEach(course -> course.setActive(false));
         
-        int currentCredits = getCurrentSemesterCredits(studentId);
-        if (currentCredits + course.getCredits() > AppConfig.getInstance().getMaxCreditsPerSemester()) {
-            throw new MaxCreditLimitExceededException(
-                currentCredits, course.getCredits(), AppConfig.getInstance().getMaxCreditsPerSemester());
+        // Detaching the rosters in a command orders it after every enrollment that could
+        // still see the courses as active.
+        List<Map<String, List<String>>> detached = fanOut(shard -> detachRosters(shard, retiring));
+        List<CompletableFuture<Map<String, Integer>>> batches = new ArrayList<>();
+        int students = 0;
+        for (int i = 0; i < shards.length; i++) {
+            Shard shard = shards[i];
+            List<Map.Entry<String, List<String>>> affected = new ArrayList<>(detached.get(i).entrySet());
+            students += affected.size();
+            batches.addAll(submitInBatches(shard, affected, batch -> unenrollBatch(shard, batch)));
         }
         
-        student.enrollInCourse(courseId);
+        Map<String, Integer> unenrolled = new TreeMap<>();
+        retiring.forEach(courseId -> unenrolled.put(courseId, 0));
+        batches.forEach(batch -> await(batch).forEach((courseId, count) -> unenrolled.merge(courseId, count, Integer::sum)));
+        return new RetirementSummary(List.copyOf(retiring), students, unenrolled,
+            Duration.ofNanos(System.nanoTime() - started));
+    }
+    
+    // Splits one shard's work into separate commands so other callers get a turn in between.
+    private static <T, R> List<CompletableFuture<R>> submitInBatches(Shard shard, List<T> items,
+                                                                     Function<List<T>, R> command) {
+        List<CompletableFuture<R>> batches = new ArrayList<>();
+        int batchSize = AppConfig.getInstance().getBatchSize();
+        for (int from = 0; from < items.size(); from += batchSize) {
+            List<T> batch = items.subList(from, Math.min(from + batchSize, items.size()));
+            batches.add(shard.submit(() -> command.apply(batch)));
+        }
+        return batches;
+    }
+    
+    // Student ID -> the retiring courses they are enrolled in, for this shard.
+    private Map<String, List<String>> detachRosters(Shard shard, Set<String> courseIds) {
+        ensureIndexes(shard);
+        Map<String, List<String>> affected = new HashMap<>();
+        for (String courseId : courseIds) {
+            List<String> roster = shard.rosters.remove(courseId);
+            if (roster == null) continue;
+            roster.forEach(studentId -> affected.computeIfAbsent(studentId, _ -> new ArrayList<>(1)).add(courseId));
+        }
+        return affected;
+    }
+    
+    private Map<String, Integer> unenrollBatch(Shard shard, List<Map.Entry<String, List<String>>> batch) {
+        Map<String, Integer> unenrolled = new HashMap<>();
+        for (Map.Entry<String, List<String>> entry : batch) {
+            Student student = lookup(entry.getKey());
+            if (student == null) continue;
+            coalesce(shard, student, () -> {
+                boolean changed = false;
+                for (String courseId : entry.getValue()) {
+                    if (unenroll(shard, student, courseId)) {
+                        unenrolled.merge(courseId, 1, Integer::sum);
+                        changed = true;
+                    }
+                }
+                return changed;
+            });
+        }
+        return unenrolled;
+    }
+    
+    // Ledgers file each course under the term it had at enrollment, so a course that moves
+    // to another term drops the ledgers of its students; they are rebuilt on next use.
+    private void onCourseChange(String entityType, String entityId, ChangeType type, String detail) {
+        if (type != ChangeType.UPDATED || !("semester".equals(detail) || "academicYear".equals(detail))) return;
+        fanOut(shard -> {
+            List<String> roster = shard.indexesReady ? shard.rosters.get(entityId) : null;
+            if (roster != null) roster.forEach(shard.termEnrollments::remove);
+            else if (!shard.indexesReady) shard.termEnrollments.clear();
+            return null;
+        });
+    }
+    
+    public int getTermCredits(String studentId, AcademicTerm term) {
+        Shard shard = shardFor(studentId);
+        return shard.call(() -> {
+            Student student = lookup(studentId);
+            if (student == null) throw new IllegalArgumentException("Student not found: " + studentId);
+            return termEnrollments(shard, student).getCredits(term);
+        });
+    }
+    
+    // Built once per student from existing enrollments, then maintained incrementally.
+    // Store-backed mode drops a ledger when its student leaves the cache.
+    private TermEnrollments termEnrollments(Shard shard, Student student) {
+        return shard.termEnrollments.computeIfAbsent(student.getId(), _ -> {
+            TermEnrollments ledger = new TermEnrollments();
+            student.getEnrolledCourses().stream()
+                .map(courseService::getCourse)
+                .flatMap(Optional::stream)
+                .filter(course -> !shard.archivedTerms.containsKey(course.getTerm()))
+                .forEach(ledger::add);
+            return ledger;
+        });
+    }
+    
+    // Moves a finished term out of the per-student ledgers; archived credits no longer
+    // count towards any credit limit check, and the term takes no new enrollments.
+    public int archiveTerm(AcademicTerm term) {
+        return fanOut(shard -> {
+            Map<String, TermEnrollments.Partition> archive = shard.archivedTerms.computeIfAbsent(term, _ -> new HashMap<>());
+            shard.termEnrollments.forEach((studentId, ledger) -> {
+                TermEnrollments.Partition partition = ledger.removeTerm(term);
+                if (partition != null) archive.put(studentId, partition);
+            });
+            return archive.size();
+        }).stream().mapToInt(Integer::intValue).sum();
     }
     
-    private int getCurrentSemesterCredits(String studentId) {
-        Student student = students.get(studentId);
-        return student.getEnrolledCourses().stream()
-            .map(courseService::getCourse)
-            .filter(Optional::isPresent)
-            .map(Optional::get)
-            .mapToInt(Course::getCredits)
-            .sum();
+    public Set<AcademicTerm> getArchivedTerms() {
+        Set<AcademicTerm> terms = new HashSet<>();
+        fanOut(shard -> Set.copyOf(shard.archivedTerms.keySet())).forEach(terms::addAll);
+        return Set.copyOf(terms);
     }
     
     public void recordGrade(String studentId, String courseId, double score) {
-        Student student = students.get(studentId);
-        if (student == null) throw new IllegalArgumentException("Student not found: " + studentId);
-        student.recordGrade(courseId, score);
+        gradeRules.check(new GradeEntry(studentId, courseId, score));
+        Shard shard = shardFor(studentId);
+        shard.run(() -> {
+            Student student = lookup(studentId);
+            if (student == null) throw new IllegalArgumentException("Student not found: " + studentId);
+            Double previous = student.getGrade(courseId);
+            student.recordGrade(courseId, score);
+            regrade(shard, courseId, previous, score);
+            writeThrough(student);
+        });
+    }
+    
+    // Bulk grading: entries are grouped by student and each student is handled by one
+    // command, so the record is looked up, validated and written through once however many
+    // marks it receives. Shards apply their students in parallel, in batches. Entries for
+    // the same student and course apply in input order. Returns why each rejected entry
+    // was not applied, keyed by its position in entries.
+    public SortedMap<Integer, String> recordGrades(List<GradeEntry> entries) {
+        SortedMap<Integer, String> rejected = new TreeMap<>();
+        RuleSet<GradeEntry> rules = gradeRules;
+        List<Map<String, List<Integer>>> byShard = new ArrayList<>(shards.length);
+        for (int i = 0; i < shards.length; i++) byShard.add(new LinkedHashMap<>());
+        for (int i = 0; i < entries.size(); i++) {
+            String reason = rules.firstViolation(entries.get(i));
+            if (reason != null) {
+                rejected.put(i, reason);
+                continue;
+            }
+            String studentId = entries.get(i).studentId();
+            byShard.get(shardIndex(studentId)).computeIfAbsent(studentId, _ -> new ArrayList<>(4)).add(i);
+        }
+        
+        List<CompletableFuture<Map<Integer, String>>> batches = new ArrayList<>();
+        for (int i = 0; i < shards.length; i++) {
+            Shard shard = shards[i];
+            List<Map.Entry<String, List<Integer>>> students = new ArrayList<>(byShard.get(i).entrySet());
+            batches.addAll(submitInBatches(shard, students, batch -> gradeBatch(shard, batch, entries)));
+        }
+        batches.forEach(batch -> rejected.putAll(await(batch)));
+        return rejected;
+    }
+    
+    private Map<Integer, String> gradeBatch(Shard shard, List<Map.Entry<String, List<Integer>>> batch,
+                                            List<GradeEntry> entries) {
+        Map<Integer, String> rejected = new HashMap<>();
+        for (Map.Entry<String, List<Integer>> marks : batch) {
+            Student student = lookup(marks.getKey());
+            if (student == null) {
+                marks.getValue().forEach(i -> rejected.put(i, "Student not found"));
+                continue;
+            }
+            coalesce(shard, student, () -> {
+                boolean changed = false;
+                for (int i : marks.getValue()) {
+                    GradeEntry entry = entries.get(i);
+                    Double previous = student.getGrade(entry.courseId());
+                    if (previous == null && !student.getEnrolledCourses().contains(entry.courseId())) {
+                        rejected.put(i, "Not enrolled in " + entry.courseId());
+                        continue;
+                    }
+                    student.recordGrade(entry.courseId(), entry.score());
+                    regrade(shard, entry.courseId(), previous, entry.score());
+                    changed = true;
+                }
+                return changed;
+            });
+        }
+        return rejected;
+    }
+    
+    // Moves a student's score within the course statistics; null means no grade.
+    private void regrade(Shard shard, String courseId, Double previous, Double current) {
+        if (!shard.indexesReady) return;
+        GradeStatistics stats = shard.gradeStats.computeIfAbsent(courseId, _ -> new GradeStatistics());
+        if (previous != null) stats.remove(previous);
+        if (current != null) stats.add(current);
+        if (stats.getCount() == 0) shard.gradeStats.remove(courseId);
+    }
+    
+    private void addToRoster(Shard shard, String courseId, String studentId) {
+        if (shard.indexesReady) shard.rosters.computeIfAbsent(courseId, _ -> new ArrayList<>()).add(studentId);
+    }
+    
+    private void removeFromRoster(Shard shard, String courseId, String studentId) {
+        if (!shard.indexesReady) return;
+        List<String> roster = shard.rosters.get(courseId);
+        if (roster != null && roster.remove(studentId) && roster.isEmpty()) shard.rosters.remove(courseId);
+    }
+    
+    // A store opened with existing records builds its statistics and rosters from one
+    // scan on first use.
+    private void ensureIndexes(Shard shard) {
+        if (shard.indexesReady) return;
+        streamStudents().forEach(student -> student.getEnrolledCourses().forEach(courseId -> {
+            shard.rosters.computeIfAbsent(courseId, _ -> new ArrayList<>()).add(student.getId());
+            Double score = student.getGrade(courseId);
+            if (score != null) shard.gradeStats.computeIfAbsent(courseId, _ -> new GradeStatistics()).add(score);
+        }));
+        shard.indexesReady = true;
+    }
+    
+    // Enrolled student IDs per course, in ID order, read from the shards' roster indexes
+    // rather than from student records. Courses nobody is enrolled in are left out.
+    public Map<String, List<String>> getRosters(Set<String> courseIds) {
+        Map<String, List<String>> rosters = new HashMap<>();
+        fanOut(shard -> {
+            ensureIndexes(shard);
+            Map<String, List<String>> copies = new HashMap<>();
+            for (String courseId : courseIds) {
+                List<String> roster = shard.rosters.get(courseId);
+                if (roster != null) copies.put(courseId, List.copyOf(roster));
+            }
+            return copies;
+        }).forEach(part -> part.forEach((courseId, roster) ->
+            rosters.computeIfAbsent(courseId, _ -> new ArrayList<>()).addAll(roster)));
+        rosters.values().forEach(Collections::sort);
+        return rosters;
+    }
+    
+    // Merges the shards' running statistics; no student records are read.
+    public GradeStatistics getCourseStatistics(String courseId) {
+        GradeStatistics total = new GradeStatistics();
+        fanOut(shard -> {
+            ensureIndexes(shard);
+            GradeStatistics stats = shard.gradeStats.get(courseId);
+            return stats != null ? stats.copy() : null;
+        }).forEach(stats -> {
+            if (stats != null) total.merge(stats);
+        });
+        return total;
+    }
+    
+    private void writeThrough(Student student) {
+        if (store != null) store.write(student);
+    }
+    
+    // Persists cached students, picking up direct edits made through Person setters.
+    public void flush() {
+        if (store == null) return;
+        Map<String, Student> students = shards[0].students;
+        shards[0].run(() -> {
+            synchronized (students) {
+                for (Student student : students.values()) {
+                    try {
+                        store.write(student);
+                    } catch (IllegalArgumentException e) {
+                        System.err.println("Student not persisted: " + e.getMessage());
+                    }
+                }
+            }
+            store.flush();
+        });
+    }
+    
+    // Flushes and stops the shard threads; queued commands still run first.
+    @Override
+    public void close() {
+        courseService.removeChangeListener(courseListener);
+        flush();
+        for (Shard shard : shards) {
+            if (shard.executor != null) shard.executor.shutdown();
+        }
+        if (store != null) {
+            try {
+                store.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Unable to close student record store", e);
+            }
+        }
     }
     
     @Override
     public List<Student> search(java.util.function.Predicate<Student> predicate) {
-        return students.values().stream().filter(predicate).collect(Collectors.toList());
+        if (store != null) return streamStudents().filter(predicate).collect(Collectors.toList());
+        List<Student> matches = new ArrayList<>();
+        fanOut(shard -> shard.students.values().stream().filter(predicate).toList()).forEach(matches::addAll);
+        return matches;
     }
     
     public List<Student> getStudentsSortedByName() {
-        return students.values().stream()
+        return studentStream()
             .sorted((s1, s2) -> s1.getFullName().compareToIgnoreCase(s2.getFullName()))
             .collect(Collectors.toList());
     }
     
     public List<Student> getStudentsSortedByGPA() {
-        return students.values().stream()
+        return studentStream()
             .sorted(Comparator.comparingDouble(Student::calculateGPA).reversed())
             .collect(Collectors.toList());
     }
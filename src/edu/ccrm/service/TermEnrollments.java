@@ -0,0 +1,50 @@
+package edu.ccrm.service;
+
+import edu.ccrm.domain.AcademicTerm;
+import edu.ccrm.domain.Course;
+
+import java.util.*;
+
+// One student's enrollments partitioned by academic term, each with a running credit total.
+class TermEnrollments {
+    static class Partition {
+        private final Map<String, Integer> courseCredits = new HashMap<>();
+        private int credits;
+        
+        int getCredits() { return credits; }
+        Set<String> getCourseIds() { return Collections.unmodifiableSet(courseCredits.keySet()); }
+    }
+    
+    private final Map<AcademicTerm, Partition> partitions = new HashMap<>();
+    private final Map<String, AcademicTerm> termByCourse = new HashMap<>();
+    
+    int getCredits(AcademicTerm term) {
+        Partition partition = partitions.get(term);
+        return partition != null ? partition.credits : 0;
+    }
+    
+    void add(Course course) {
+        if (termByCourse.putIfAbsent(course.getCode(), course.getTerm()) != null) return;
+        Partition partition = partitions.computeIfAbsent(course.getTerm(), _ -> new Partition());
+        partition.courseCredits.put(course.getCode(), course.getCredits());
+        partition.credits += course.getCredits();
+    }
+    
+    void remove(String courseId) {
+        AcademicTerm term = termByCourse.remove(courseId);
+        if (term == null) return;
+        Partition partition = partitions.get(term);
+        partition.credits -= partition.courseCredits.remove(courseId);
+        if (partition.courseCredits.isEmpty()) partitions.remove(term);
+    }
+    
+    Partition removeTerm(AcademicTerm term) {
+        Partition partition = partitions.remove(term);
+        if (partition != null) partition.courseCredits.keySet().forEach(termByCourse::remove);
+        return partition;
+    }
+    
+    Map<AcademicTerm, Partition> getPartitions() {
+        return Collections.unmodifiableMap(partitions);
+    }
+}
@@ -0,0 +1,51 @@
+package edu.ccrm.service;
+
+import edu.ccrm.config.AppConfig;
+import edu.ccrm.domain.Course;
+import edu.ccrm.domain.Student;
+import edu.ccrm.util.RuleSet;
+import edu.ccrm.util.Validator;
+
+/**
+ * The rules records must pass before the services accept them, from the CLI, an import
+ * or a restore alike. Text limits match the fixed fields of the student record store.
+ * Services start with these sets; setters on the services swap in stricter compositions.
+ */
+public final class ValidationRules {
+    public static final int ID_LENGTH = 16;
+    public static final int NAME_BYTES = 96;
+    public static final int EMAIL_BYTES = 96;
+    public static final int TITLE_BYTES = 128;
+    public static final int DEPARTMENT_BYTES = 64;
+    
+    public static final RuleSet<Student> STUDENT = RuleSet.<Student>builder()
+        .rule(student -> Validator.isValidStudentId(student.getId()), "Invalid student ID")
+        .rule(student -> Validator.isValidIdentifier(student.getRegNo(), ID_LENGTH), "Invalid registration number")
+        .rule(student -> Validator.isPlainText(student.getFullName(), NAME_BYTES), "Invalid name")
+        .rule(student -> Validator.isValidEmail(student.getEmail()) && student.getEmail().length() <= EMAIL_BYTES, "Invalid email")
+        .build();
+    
+    // The credit ceiling follows the live per-semester limit: a larger course could never be taken.
+    public static final RuleSet<Course> COURSE = RuleSet.<Course>builder()
+        .rule(course -> Validator.isValidCourseCode(course.getCode()), "Invalid course code")
+        .rule(course -> Validator.isPlainText(course.getTitle(), TITLE_BYTES), "Invalid title")
+        .rule(course -> Validator.isInRange(course.getCredits(), 1, AppConfig.getInstance().getMaxCreditsPerSemester()),
+            "Credits out of range")
+        .rule(course -> isBlank(course.getInstructorId()) || Validator.isValidIdentifier(course.getInstructorId(), ID_LENGTH),
+            "Invalid instructor ID")
+        .rule(course -> isBlank(course.getDepartment()) || Validator.isPlainText(course.getDepartment(), DEPARTMENT_BYTES),
+            "Invalid department")
+        .build();
+    
+    public static final RuleSet<GradeEntry> GRADE = RuleSet.<GradeEntry>builder()
+        .rule(entry -> Validator.isValidStudentId(entry.studentId()), "Invalid student ID")
+        .rule(entry -> Validator.isValidCourseCode(entry.courseId()), "Invalid course code")
+        .rule(entry -> entry.score() >= 0 && entry.score() <= 100, "Score out of range 0-100")
+        .build();
+    
+    private ValidationRules() {}
+    
+    private static boolean isBlank(String value) {
+        return value == null || value.isEmpty();
+    }
+}
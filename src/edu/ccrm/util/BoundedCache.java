@@ -0,0 +1,85 @@
+package edu.ccrm.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Size-bounded LRU cache with hit/miss/eviction counters. Loads that race with an
+ * invalidation are not stored, so a value computed from pre-change data never
+ * survives the invalidation that should have removed it.
+ */
+public class BoundedCache<K, V> {
+    public record Stats(long hits, long misses, long evictions, int size, int capacity) {
+        public double hitRate() {
+            long total = hits + misses;
+            return total == 0 ? 0.0 : (double) hits / total;
+        }
+    }
+    
+    private final int capacity;
+    private final LinkedHashMap<K, V> entries;
+    private long hits, misses, evictions;
+    private long generation;
+    
+    public BoundedCache(int capacity) {
+        if (capacity <= 0) throw new IllegalArgumentException("Capacity must be positive");
+        this.capacity = capacity;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                if (size() <= BoundedCache.this.capacity) return false;
+                evictions++;
+                return true;
+            }
+        };
+    }
+    
+    public V get(K key, Function<? super K, ? extends V> loader) {
+        long stamp;
+        synchronized (this) {
+            V value = entries.get(key);
+            if (value != null) {
+                hits++;
+                return value;
+            }
+            misses++;
+            stamp = generation;
+        }
+        V loaded = loader.apply(key);
+        synchronized (this) {
+            if (stamp == generation && loaded != null) entries.put(key, loaded);
+        }
+        return loaded;
+    }
+    
+    public synchronized V getIfPresent(K key) {
+        V value = entries.get(key);
+        if (value != null) hits++;
+        else misses++;
+        return value;
+    }
+    
+    public synchronized long stamp() {
+        return generation;
+    }
+    
+    // Stores a value computed after stamp() unless an invalidation happened in between.
+    public synchronized void putIfCurrent(K key, V value, long stamp) {
+        if (stamp == generation) entries.put(key, value);
+    }
+    
+    public synchronized void invalidate(K key) {
+        generation++;
+        entries.remove(key);
+    }
+    
+    public synchronized void invalidateAll() {
+        generation++;
+        entries.clear();
+    }
+    
+    public synchronized Stats getStats() {
+        return new Stats(hits, misses, evictions, entries.size(), capacity);
+    }
+}
@@ -0,0 +1,22 @@
+package edu.ccrm.util;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Canonical instances for small, heavily repeated value sets such as course codes,
+ * departments and instructor IDs. Every record that mentions "CS101" then shares
+ * one String instead of holding its own parsed copy.
+ */
+public final class Interner {
+    private static final ConcurrentHashMap<String, String> POOL = new ConcurrentHashMap<>();
+    
+    private Interner() {}
+    
+    public static String intern(String value) {
+        if (value == null) return null;
+        String canonical = POOL.get(value);
+        if (canonical != null) return canonical;
+        canonical = POOL.putIfAbsent(value, value);
+        return canonical != null ? canonical : value;
+    }
+}
@@ -0,0 +1,361 @@
+package edu.ccrm.util;
+
+import java.util.*;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Immutable hash array mapped trie. plus/minus copy only the path from the root
+ * to the changed entry, so every previous version stays valid and can be read
+ * by other threads without locking.
+ */
+public final class PersistentMap<K, V> implements Iterable<Map.Entry<K, V>> {
+    private static final PersistentMap<?, ?> EMPTY = new PersistentMap<>(null, 0);
+    
+    private final Node root;
+    private final int size;
+    
+    private PersistentMap(Node root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+    
+    @SuppressWarnings("unchecked")
+    public static <K, V> PersistentMap<K, V> empty() {
+        return (PersistentMap<K, V>) EMPTY;
+    }
+    
+    public int size() { return size; }
+    public boolean isEmpty() { return size == 0; }
+    
+    @SuppressWarnings("unchecked")
+    public V get(K key) {
+        if (root == null) return null;
+        Leaf leaf = root.find(0, hash(key), key);
+        return leaf != null ? (V) leaf.value : null;
+    }
+    
+    public boolean containsKey(K key) {
+        return root != null && root.find(0, hash(key), key) != null;
+    }
+    
+    public PersistentMap<K, V> plus(K key, V value) {
+        Objects.requireNonNull(key, "Key cannot be null");
+        boolean[] added = new boolean[1];
+        Node start = root != null ? root : BitmapNode.EMPTY;
+        Node newRoot = start.assoc(0, new Leaf(hash(key), key, value), added);
+        return new PersistentMap<>(newRoot, added[0] ? size + 1 : size);
+    }
+    
+    public PersistentMap<K, V> minus(K key) {
+        if (root == null) return this;
+        int hash = hash(key);
+        if (root.find(0, hash, key) == null) return this;
+        Node newRoot = root.without(0, hash, key);
+        return size == 1 ? empty() : new PersistentMap<>(newRoot, size - 1);
+    }
+    
+    @Override
+    public Iterator<Map.Entry<K, V>> iterator() {
+        return new EntryIterator<>(root);
+    }
+    
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        forEach(entry -> action.accept(entry.getKey(), entry.getValue()));
+    }
+    
+    public Stream<V> values() {
+        return StreamSupport.stream(valueSpliterator(), false);
+    }
+    
+    // Splits along the trie's own child arrays, so parallel consumers need no copy.
+    public Spliterator<V> valueSpliterator() {
+        Object[] top = root != null ? root.children() : new Object[0];
+        return new ValueSpliterator<>(top, 0, top.length, size, true);
+    }
+    
+    private static int hash(Object key) {
+        int h = key.hashCode();
+        return h ^ (h >>> 16);
+    }
+    
+    private interface Node {
+        Leaf find(int shift, int hash, Object key);
+        Node assoc(int shift, Leaf leaf, boolean[] added);
+        Node without(int shift, int hash, Object key);
+        Object[] children();
+    }
+    
+    private static final class Leaf implements Map.Entry<Object, Object> {
+        final int hash;
+        final Object key;
+        final Object value;
+        
+        Leaf(int hash, Object key, Object value) {
+            this.hash = hash;
+            this.key = key;
+            this.value = value;
+        }
+        
+        @Override public Object getKey() { return key; }
+        @Override public Object getValue() { return value; }
+        @Override public Object setValue(Object value) { throw new UnsupportedOperationException(); }
+    }
+    
+    private static final class BitmapNode implements Node {
+        static final BitmapNode EMPTY = new BitmapNode(0, new Object[0]);
+        
+        final int bitmap;
+        final Object[] array;
+        
+        BitmapNode(int bitmap, Object[] array) {
+            this.bitmap = bitmap;
+            this.array = array;
+        }
+        
+        private static int bit(int shift, int hash) {
+            return 1 << ((hash >>> shift) & 31);
+        }
+        
+        private int index(int bit) {
+            return Integer.bitCount(bitmap & (bit - 1));
+        }
+        
+        @Override
+        public Leaf find(int shift, int hash, Object key) {
+            int bit = bit(shift, hash);
+            if ((bitmap & bit) == 0) return null;
+            Object child = array[index(bit)];
+            if (child instanceof Leaf leaf) {
+                return leaf.hash == hash && leaf.key.equals(key) ? leaf : null;
+            }
+            return ((Node) child).find(shift + 5, hash, key);
+        }
+        
+        @Override
+        public Node assoc(int shift, Leaf leaf, boolean[] added) {
+            int bit = bit(shift, leaf.hash);
+            int idx = index(bit);
+            if ((bitmap & bit) == 0) {
+                Object[] copy = new Object[array.length + 1];
+                System.arraycopy(array, 0, copy, 0, idx);
+                copy[idx] = leaf;
+                System.arraycopy(array, idx, copy, idx + 1, array.length - idx);
+                added[0] = true;
+                return new BitmapNode(bitmap | bit, copy);
+            }
+            
+            Object child = array[idx];
+            Object replacement;
+            if (child instanceof Leaf existing) {
+                if (existing.hash == leaf.hash && existing.key.equals(leaf.key)) {
+                    if (existing.value == leaf.value) return this;
+                    replacement = leaf;
+                } else {
+                    replacement = merge(shift + 5, existing, leaf);
+                    added[0] = true;
+                }
+            } else {
+                Node node = (Node) child;
+                replacement = node.assoc(shift + 5, leaf, added);
+                if (replacement == node) return this;
+            }
+            Object[] copy = array.clone();
+            copy[idx] = replacement;
+            return new BitmapNode(bitmap, copy);
+        }
+        
+        private static Node merge(int shift, Leaf a, Leaf b) {
+            if (a.hash == b.hash) return new CollisionNode(a.hash, new Leaf[] { a, b });
+            boolean[] ignored = new boolean[1];
+            return EMPTY.assoc(shift, a, ignored).assoc(shift, b, ignored);
+        }
+        
+        @Override
+        public Node without(int shift, int hash, Object key) {
+            int bit = bit(shift, hash);
+            int idx = index(bit);
+            Object child = array[idx];
+            if (child instanceof Node node) {
+                Node replacement = node.without(shift + 5, hash, key);
+                if (replacement != null) {
+                    Object[] copy = array.clone();
+                    copy[idx] = replacement;
+                    return new BitmapNode(bitmap, copy);
+                }
+            }
+            if (array.length == 1) return null;
+            Object[] copy = new Object[array.length - 1];
+            System.arraycopy(array, 0, copy, 0, idx);
+            System.arraycopy(array, idx + 1, copy, idx, array.length - idx - 1);
+            return new BitmapNode(bitmap & ~bit, copy);
+        }
+        
+        @Override
+        public Object[] children() { return array; }
+    }
+    
+    private static final class CollisionNode implements Node {
+        final int hash;
+        final Leaf[] leaves;
+        
+        CollisionNode(int hash, Leaf[] leaves) {
+            this.hash = hash;
+            this.leaves = leaves;
+        }
+        
+        @Override
+        public Leaf find(int shift, int hash, Object key) {
+            for (Leaf leaf : leaves) {
+                if (leaf.key.equals(key)) return leaf;
+            }
+            return null;
+        }
+        
+        @Override
+        public Node assoc(int shift, Leaf leaf, boolean[] added) {
+            if (leaf.hash != hash) {
+                Node wrapper = new BitmapNode(BitmapNode.bit(shift, hash), new Object[] { this });
+                return wrapper.assoc(shift, leaf, added);
+            }
+            for (int i = 0; i < leaves.length; i++) {
+                if (leaves[i].key.equals(leaf.key)) {
+                    Leaf[] copy = leaves.clone();
+                    copy[i] = leaf;
+                    return new CollisionNode(hash, copy);
+                }
+            }
+            Leaf[] copy = Arrays.copyOf(leaves, leaves.length + 1);
+            copy[leaves.length] = leaf;
+            added[0] = true;
+            return new CollisionNode(hash, copy);
+        }
+        
+        @Override
+        public Node without(int shift, int hash, Object key) {
+            if (leaves.length == 1) return null;
+            Leaf[] copy = new Leaf[leaves.length - 1];
+            int j = 0;
+            for (Leaf leaf : leaves) {
+                if (!leaf.key.equals(key)) copy[j++] = leaf;
+            }
+            return new CollisionNode(hash, copy);
+        }
+        
+        @Override
+        public Object[] children() { return leaves; }
+    }
+    
+    private static final class ValueSpliterator<V> implements Spliterator<V> {
+        private Object[] array;
+        private int index;
+        private int fence;
+        private long estimate;
+        private boolean exact;
+        private Iterator<Map.Entry<Object, Object>> nested;
+        
+        ValueSpliterator(Object[] array, int index, int fence, long estimate, boolean exact) {
+            this.array = array;
+            this.index = index;
+            this.fence = fence;
+            this.estimate = estimate;
+            this.exact = exact;
+        }
+        
+        @Override
+        @SuppressWarnings("unchecked")
+        public boolean tryAdvance(Consumer<? super V> action) {
+            while (true) {
+                if (nested != null) {
+                    if (nested.hasNext()) {
+                        action.accept((V) nested.next().getValue());
+                        return true;
+                    }
+                    nested = null;
+                }
+                if (index >= fence) return false;
+                Object child = array[index++];
+                if (child instanceof Leaf leaf) {
+                    action.accept((V) leaf.value);
+                    return true;
+                }
+                nested = new EntryIterator<>((Node) child);
+            }
+        }
+        
+        @Override
+        public Spliterator<V> trySplit() {
+            if (nested != null) return null;
+            // A single remaining subtree: descend into it before splitting.
+            while (fence - index == 1 && array[index] instanceof Node node) {
+                array = node.children();
+                index = 0;
+                fence = array.length;
+            }
+            int mid = (index + fence) >>> 1;
+            if (mid <= index) return null;
+            long half = estimate >>> 1;
+            Spliterator<V> prefix = new ValueSpliterator<>(array, index, mid, half, false);
+            index = mid;
+            estimate -= half;
+            exact = false;
+            return prefix;
+        }
+        
+        @Override
+        public long estimateSize() { return estimate; }
+        
+        @Override
+        public int characteristics() {
+            return Spliterator.IMMUTABLE | Spliterator.NONNULL | (exact ? Spliterator.SIZED : 0);
+        }
+    }
+    
+    private static final class EntryIterator<K, V> implements Iterator<Map.Entry<K, V>> {
+        private final Deque<Object[]> arrays = new ArrayDeque<>();
+        private final Deque<Integer> positions = new ArrayDeque<>();
+        private Leaf next;
+        
+        EntryIterator(Node root) {
+            if (root != null) {
+                arrays.push(root.children());
+                positions.push(0);
+            }
+            advance();
+        }
+        
+        private void advance() {
+            next = null;
+            while (!arrays.isEmpty()) {
+                Object[] array = arrays.peek();
+                int pos = positions.pop();
+                if (pos == array.length) {
+                    arrays.pop();
+                    continue;
+                }
+                positions.push(pos + 1);
+                Object child = array[pos];
+                if (child instanceof Leaf leaf) {
+                    next = leaf;
+                    return;
+                }
+                arrays.push(((Node) child).children());
+                positions.push(0);
+            }
+        }
+        
+        @Override
+        public boolean hasNext() { return next != null; }
+        
+        @Override
+        @SuppressWarnings("unchecked")
+        public Map.Entry<K, V> next() {
+            if (next == null) throw new NoSuchElementException();
+            Leaf current = next;
+            advance();
+            return (Map.Entry<K, V>) (Map.Entry<?, ?>) current;
+        }
+    }
+}
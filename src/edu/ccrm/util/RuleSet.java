@@ -0,0 +1,90 @@
+package edu.ccrm.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+
+/**
+ * An ordered set of validation rules, each a check paired with a fixed reject reason.
+ * Valid values run the checks and nothing else, so a rule set can sit in front of every
+ * import row and API call; each reject is counted against its reason. Sets compose with
+ * and(), which keeps the rules of both and starts fresh counts.
+ */
+public final class RuleSet<T> {
+    private record Rule<T>(Predicate<? super T> check, String reason, LongAdder rejects) {}
+    
+    private final Rule<T>[] rules;
+    
+    private RuleSet(Rule<T>[] rules) {
+        this.rules = rules;
+    }
+    
+    public static <T> Builder<T> builder() {
+        return new Builder<>();
+    }
+    
+    // Reason of the first rule the value breaks, or null when it passes them all.
+    public String firstViolation(T value) {
+        for (Rule<T> rule : rules) {
+            if (!rule.check().test(value)) {
+                rule.rejects().increment();
+                return rule.reason();
+            }
+        }
+        return null;
+    }
+    
+    public List<String> violations(T value) {
+        List<String> reasons = null;
+        for (Rule<T> rule : rules) {
+            if (!rule.check().test(value)) {
+                rule.rejects().increment();
+                if (reasons == null) reasons = new ArrayList<>();
+                reasons.add(rule.reason());
+            }
+        }
+        return reasons == null ? List.of() : reasons;
+    }
+    
+    // Throws IllegalArgumentException listing every broken rule.
+    public void check(T value) {
+        List<String> reasons = violations(value);
+        if (!reasons.isEmpty()) throw new IllegalArgumentException(String.join("; ", reasons));
+    }
+    
+    public <U extends T> RuleSet<U> and(RuleSet<U> other) {
+        return RuleSet.<U>builder().include(this).include(other).build();
+    }
+    
+    // Rejects so far per reason, in rule order; rules sharing a reason are added together.
+    public Map<String, Long> getRejectCounts() {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (Rule<T> rule : rules) counts.merge(rule.reason(), rule.rejects().sum(), Long::sum);
+        return Collections.unmodifiableMap(counts);
+    }
+    
+    public static final class Builder<T> {
+        private final List<Rule<T>> rules = new ArrayList<>();
+        
+        public Builder<T> rule(Predicate<? super T> check, String reason) {
+            rules.add(new Rule<>(Objects.requireNonNull(check, "Check cannot be null"),
+                Objects.requireNonNull(reason, "Reason cannot be null"), new LongAdder()));
+            return this;
+        }
+        
+        public Builder<T> include(RuleSet<? super T> other) {
+            for (var rule : other.rules) rule(rule.check(), rule.reason());
+            return this;
+        }
+        
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        public RuleSet<T> build() {
+            return new RuleSet<>(rules.toArray(new Rule[0]));
+        }
+    }
+}
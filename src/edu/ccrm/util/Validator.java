@@ -1,21 +1,121 @@
 // Validator.java
 package edu.ccrm.util;
 
-import java.util.regex.Pattern;
-
+/**
+ * Field checks written as plain ASCII loops rather than regular expressions, so a check
+ * neither compiles a pattern nor allocates and millions of rows validate in a few
+ * milliseconds. Every check returns false for null.
+ */
 public class Validator {
-    private static final Pattern EMAIL_PATTERN = 
-        Pattern.compile("^[A-Za-z0-9+_.-]+@(.+)$");
+    // Character classes of ASCII, one bit each, so a character is classified with one lookup.
+    private static final int ALPHANUMERIC = 1;
+    private static final int EMAIL_LOCAL = 2;
+    private static final int IDENTIFIER = 4;
+    private static final int PLAIN_TEXT = 8;
+    private static final byte[] ASCII = new byte[128];
+    
+    static {
+        for (char c = 0x20; c < 0x7F; c++) ASCII[c] |= PLAIN_TEXT;
+        for (char c : "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz".toCharArray()) {
+            ASCII[c] |= ALPHANUMERIC | EMAIL_LOCAL | IDENTIFIER;
+        }
+        for (char c : "+_.-".toCharArray()) ASCII[c] |= EMAIL_LOCAL;
+        for (char c : "-_".toCharArray()) ASCII[c] |= IDENTIFIER;
+    }
+    
+    private Validator() {}
     
+    // Local part [A-Za-z0-9+_.-]+, then a domain of dot-separated [A-Za-z0-9-] labels.
     public static boolean isValidEmail(String email) {
-        return email != null && EMAIL_PATTERN.matcher(email).matches();
+        if (email == null) return false;
+        int at = email.indexOf('@');
+        if (at <= 0 || at == email.length() - 1) return false;
+        for (int i = 0; i < at; i++) {
+            if (!is(email.charAt(i), EMAIL_LOCAL)) return false;
+        }
+        boolean labelStart = true;
+        for (int i = at + 1; i < email.length(); i++) {
+            char c = email.charAt(i);
+            if (c == '.') {
+                if (labelStart) return false;
+                labelStart = true;
+            } else if (is(c, ALPHANUMERIC) || c == '-') {
+                labelStart = false;
+            } else {
+                return false;
+            }
+        }
+        return !labelStart;
     }
     
+    // 'S' and 3 to 9 digits: S001 and S2024001 are valid.
     public static boolean isValidStudentId(String id) {
-        return id != null && id.matches("S\\d{3}");
+        return id != null && id.length() >= 4 && id.length() <= 10 && id.charAt(0) == 'S' && isDigits(id, 1, id.length());
     }
     
+    // 2 to 4 upper-case letters and 3 digits, like CS101 or MATH201.
     public static boolean isValidCourseCode(String code) {
-        return code != null && code.matches("[A-Z]{2,4}\\d{3}");
+        if (code == null || code.length() < 5 || code.length() > 7) return false;
+        int letters = code.length() - 3;
+        for (int i = 0; i < letters; i++) {
+            char c = code.charAt(i);
+            if (c < 'A' || c > 'Z') return false;
+        }
+        return isDigits(code, letters, code.length());
+    }
+    
+    // 1 to maxLength ASCII letters, digits, '-' or '_'.
+    public static boolean isValidIdentifier(String value, int maxLength) {
+        if (value == null || value.isEmpty() || value.length() > maxLength) return false;
+        for (int i = 0; i < value.length(); i++) {
+            if (!is(value.charAt(i), IDENTIFIER)) return false;
+        }
+        return true;
+    }
+    
+    // Not blank, at most maxBytes in UTF-8, and printable: anything but control characters
+    // and unpaired surrogates. Commas and quotes are fine; CSV export quotes such fields.
+    public static boolean isPlainText(String value, int maxBytes) {
+        if (value == null || value.length() > maxBytes) return false;
+        boolean blank = true;
+        int bytes = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c != ' ') blank = false;
+            if (c < 0x80) {
+                if ((ASCII[c] & PLAIN_TEXT) == 0) return false;
+                bytes++;
+            } else if (c <= 0x9F) {
+                return false;
+            } else if (c < 0x800) {
+                bytes += 2;
+            } else if (Character.isHighSurrogate(c)) {
+                // The pair encodes as four bytes; its low half adds nothing further.
+                if (i + 1 == value.length() || !Character.isLowSurrogate(value.charAt(i + 1))) return false;
+                bytes += 4;
+                i++;
+            } else if (Character.isLowSurrogate(c)) {
+                return false;
+            } else {
+                bytes += 3;
+            }
+        }
+        return !blank && bytes <= maxBytes;
+    }
+    
+    public static boolean isInRange(long value, long min, long max) {
+        return value >= min && value <= max;
+    }
+    
+    private static boolean isDigits(String value, int from, int to) {
+        for (int i = from; i < to; i++) {
+            char c = value.charAt(i);
+            if (c < '0' || c > '9') return false;
+        }
+        return true;
+    }
+    
+    private static boolean is(char c, int characterClass) {
+        return c < 0x80 && (ASCII[c] & characterClass) != 0;
     }
 }
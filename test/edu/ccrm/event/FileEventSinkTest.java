@@ -0,0 +1,54 @@
+package edu.ccrm.event;
+
+import edu.ccrm.domain.ChangeType;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// A change log that can no longer write must not stall publishers, even on a BLOCK bus.
+public class FileEventSinkTest {
+    public static void main(String[] args) throws Exception {
+        publishersKeepRunningAfterSinkFails();
+        System.out.println("FileEventSinkTest passed");
+    }
+    
+    // /dev/full accepts the open and fails every write with "No space left on device".
+    static void publishersKeepRunningAfterSinkFails() throws Exception {
+        Path full = Path.of("/dev/full");
+        if (!Files.isWritable(full)) {
+            System.out.println("Skipped: /dev/full is not available");
+            return;
+        }
+        ChangeEventBus bus = new ChangeEventBus(16, ChangeEventBus.Backpressure.BLOCK);
+        FileEventSink sink = new FileEventSink(bus, full);
+        
+        List<Thread> publishers = new ArrayList<>();
+        for (int p = 0; p < 4; p++) {
+            int publisher = p;
+            publishers.add(Thread.startVirtualThread(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    bus.publish("Student", "S" + publisher + i, ChangeType.UPDATED, null);
+                }
+            }));
+        }
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        for (Thread publisher : publishers) {
+            publisher.join(Math.max(1, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime())));
+            check(!publisher.isAlive(), "publisher still blocked after the sink failed");
+        }
+        check(bus.getPublishedCount() == 40_000, "expected 40000 events, bus has " + bus.getPublishedCount());
+        check(sink.isFailed(), "sink should report the write failure");
+        try {
+            sink.close();
+        } catch (java.io.IOException expected) {
+            // Closing flushes into the same full device.
+        }
+    }
+    
+    private static void check(boolean condition, String message) {
+        if (!condition) throw new AssertionError(message);
+    }
+}
@@ -0,0 +1,107 @@
+package edu.ccrm.io;
+
+import edu.ccrm.domain.ChangeType;
+import edu.ccrm.domain.Course;
+import edu.ccrm.domain.Semester;
+import edu.ccrm.domain.Student;
+import edu.ccrm.service.CourseService;
+import edu.ccrm.service.EnrollmentService;
+import edu.ccrm.service.StudentService;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+// JSON lines import: students arrive with their enrollments in one call, and text keeps
+// every character the rules allow.
+public class JsonImportTest {
+    public static void main(String[] args) throws Exception {
+        importedEnrollmentsReachDerivedViews();
+        textWithCommasAndQuotesRoundTrips();
+        System.out.println("JsonImportTest passed");
+    }
+    
+    // Views built before the import must not keep serving the rosters from before it.
+    static void importedEnrollmentsReachDerivedViews() throws Exception {
+        CourseService sourceCourses = courses();
+        StudentService sourceStudents = new StudentService(sourceCourses);
+        sourceStudents.addStudent(student("S002", "Jane Doe"));
+        sourceStudents.enrollStudentInCourse("S002", "CS102");
+        sourceStudents.recordGrade("S002", "CS102", 91);
+        Path file = Files.createTempFile("students", ".jsonl");
+        try {
+            new ImportExportService(sourceStudents, sourceCourses)
+                .exportStudentsToJson(sourceStudents.snapshot(), file, Progress.NONE);
+            
+            CourseService courses = courses();
+            StudentService students = new StudentService(courses);
+            EnrollmentService enrollments = new EnrollmentService(students, courses);
+            List<String> events = new ArrayList<>();
+            students.addChangeListener((entityType, entityId, type, detail) -> events.add(type + " " + detail));
+            check(enrollments.getStudentsInCourse("CS102").isEmpty(), "CS102 should start empty");
+            check(enrollments.getEnrollmentsByCourse().isEmpty(), "no enrollments before the import");
+            
+            new ImportExportService(students, courses).importStudentsFromJson(file, Progress.NONE);
+            
+            check(enrollments.getStudentsInCourse("CS102").equals(List.of("S002")),
+                "CS102 roster after import: " + enrollments.getStudentsInCourse("CS102"));
+            check(enrollments.getEnrollmentsByCourse().equals(Map.of("CS102", List.of("S002"))),
+                "enrollments after import: " + enrollments.getEnrollmentsByCourse());
+            check(events.equals(List.of(ChangeType.CREATED + " null", ChangeType.ENROLLED + " CS102",
+                ChangeType.GRADE_RECORDED + " CS102=91.0")), "events after import: " + events);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+    
+    // Names and titles may hold commas and quotes; JSON lines carry them unchanged.
+    static void textWithCommasAndQuotesRoundTrips() throws Exception {
+        String name = "Doe, Jane \"JD\" Ø";
+        String title = "Data, Structures \"II\"";
+        CourseService sourceCourses = courses();
+        sourceCourses.addCourse(new Course.Builder().code("CS201").title(title).credits(3)
+            .department("CS").semester(Semester.FALL).build());
+        StudentService sourceStudents = new StudentService(sourceCourses);
+        sourceStudents.addStudent(student("S003", name));
+        ImportExportService source = new ImportExportService(sourceStudents, sourceCourses);
+        Path studentsFile = Files.createTempFile("students", ".jsonl");
+        Path coursesFile = Files.createTempFile("courses", ".jsonl");
+        try {
+            source.exportStudentsToJson(sourceStudents.snapshot(), studentsFile, Progress.NONE);
+            source.exportCoursesToJson(sourceCourses.snapshot(), coursesFile, Progress.NONE);
+            
+            CourseService courses = new CourseService();
+            StudentService students = new StudentService(courses);
+            ImportExportService target = new ImportExportService(students, courses);
+            target.importCoursesFromJson(coursesFile, Progress.NONE);
+            target.importStudentsFromJson(studentsFile, Progress.NONE);
+            
+            check(students.getStudent("S003").map(Student::getFullName).orElse(null).equals(name),
+                "name after round trip: " + students.getStudent("S003").map(Student::getFullName));
+            check(courses.getCourse("CS201").map(Course::getTitle).orElse(null).equals(title),
+                "title after round trip: " + courses.getCourse("CS201").map(Course::getTitle));
+        } finally {
+            Files.deleteIfExists(studentsFile);
+            Files.deleteIfExists(coursesFile);
+        }
+    }
+    
+    private static CourseService courses() {
+        CourseService courses = new CourseService();
+        for (String code : List.of("CS101", "CS102")) {
+            courses.addCourse(new Course.Builder().code(code).title("Course " + code).credits(3)
+                .department("CS").semester(Semester.FALL).build());
+        }
+        return courses;
+    }
+    
+    private static Student student(String id, String name) {
+        return new Student.Builder().id(id).regNo("REG" + id).fullName(name).email(id.toLowerCase() + "@example.com").build();
+    }
+    
+    private static void check(boolean condition, String message) {
+        if (!condition) throw new AssertionError(message);
+    }
+}